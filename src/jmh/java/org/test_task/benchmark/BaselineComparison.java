@@ -0,0 +1,80 @@
+package org.test_task.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH results in JSON format benchmark by benchmark. A benchmark regressed when its
+ * score got worse by more than the tolerance and more than the error of both measurements, so
+ * noise alone doesn't fail the comparison. Benchmarks missing in either result are reported and
+ * ignored.
+ */
+final class BaselineComparison {
+    private static final String THROUGHPUT_MODE = "thrpt";
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final double tolerance;
+
+    BaselineComparison(double tolerance) {
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Prints the change of every benchmark and returns {@code false} if any of them regressed.
+     */
+    boolean compare(Path baselineFile, Path resultFile) throws IOException {
+        Map<String, JsonNode> baseline = read(baselineFile);
+        Map<String, JsonNode> result = read(resultFile);
+        boolean passed = true;
+        System.out.printf("%n%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : result.entrySet()) {
+            JsonNode current = entry.getValue();
+            JsonNode previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("%-70s %14s %14.3f %9s%n", entry.getKey(), "-", score(current), "new");
+                continue;
+            }
+            double change = (score(current) - score(previous)) / score(previous);
+            double worsening = THROUGHPUT_MODE.equals(current.path("mode").asText()) ? -change : change;
+            double noise = (error(current) + error(previous)) / score(previous);
+            boolean regressed = worsening > Math.max(tolerance, noise);
+            passed &= !regressed;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%%s%n", entry.getKey(), score(previous),
+                    score(current), change * 100, regressed ? "  REGRESSION" : "");
+        }
+        baseline.keySet().stream()
+                .filter(benchmark -> !result.containsKey(benchmark))
+                .forEach(benchmark -> System.out.printf("%-70s %14s%n", benchmark, "not run"));
+        return passed;
+    }
+
+    private Map<String, JsonNode> read(Path file) throws IOException {
+        Map<String, JsonNode> benchmarks = new LinkedHashMap<>();
+        for (JsonNode benchmark : objectMapper.readTree(file.toFile())) {
+            benchmarks.put(key(benchmark), benchmark);
+        }
+        return benchmarks;
+    }
+
+    private static String key(JsonNode benchmark) {
+        String name = benchmark.path("benchmark").asText()
+                .replace(BaselineComparison.class.getPackageName() + ".", "");
+        Map<String, String> params = new TreeMap<>();
+        benchmark.path("params").fields().forEachRemaining(param -> params.put(param.getKey(),
+                param.getValue().asText()));
+        return params.isEmpty() ? name : name + params;
+    }
+
+    private static double score(JsonNode benchmark) {
+        return benchmark.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static double error(JsonNode benchmark) {
+        double error = benchmark.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,77 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Runs the benchmarks, writes the result to {@value #RESULT_FILE} and compares it with the
+ * baseline. Configured by system properties:
+ * <ul>
+ *     <li>{@code benchmark.include} - regular expression of the benchmarks to run, all by default;</li>
+ *     <li>{@code benchmark.baseline} - JMH result to compare with, {@value #DEFAULT_BASELINE} by default;</li>
+ *     <li>{@code benchmark.tolerance} - allowed relative worsening, {@value #DEFAULT_TOLERANCE} by default;</li>
+ *     <li>{@code benchmark.update-baseline} - store the result as the new baseline instead of comparing;</li>
+ *     <li>{@code benchmark.profiler} - JMH profiler to run the benchmarks with, e.g. {@code gc} for the
+ *     allocation per operation, none by default;</li>
+ *     <li>{@code benchmark.datasource.*} - database of the service benchmarks, see {@link LibraryContext}.</li>
+ * </ul>
+ * The process fails if a benchmark regressed. Baselines depend on the machine, so compare only
+ * results measured on the same one.
+ */
+public final class BenchmarkRunner {
+    private static final String RESULT_FILE = "target/jmh-result.json";
+    private static final String DEFAULT_BASELINE = "jmh-baseline.json";
+    private static final String DEFAULT_TOLERANCE = "0.1";
+    private static final String INCLUDE_PROPERTY = "benchmark.include";
+    private static final String BASELINE_PROPERTY = "benchmark.baseline";
+    private static final String TOLERANCE_PROPERTY = "benchmark.tolerance";
+    private static final String UPDATE_BASELINE_PROPERTY = "benchmark.update-baseline";
+    private static final String PROFILER_PROPERTY = "benchmark.profiler";
+    private static final int VIRTUAL_THREADS_VERSION = 21;
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String include = System.getProperty(INCLUDE_PROPERTY, "");
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include(BenchmarkRunner.class.getPackageName() + ".*" + include)
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT_FILE);
+        String profiler = System.getProperty(PROFILER_PROPERTY, "");
+        if (!profiler.isBlank()) {
+            options.addProfiler(profiler);
+        }
+        if (!LibraryContext.hasExternalDatabase()) {
+            options.exclude(BookSaveBenchmark.class.getSimpleName());
+        }
+        if (Runtime.version().feature() < VIRTUAL_THREADS_VERSION) {
+            System.out.println("Virtual threads need Java " + VIRTUAL_THREADS_VERSION
+                    + ", only the platform execution mode is measured");
+            options.param(ExecutionModeBenchmark.EXECUTION_MODE_PARAM, "platform");
+        }
+        new Runner(options.build()).run();
+        Path result = Path.of(RESULT_FILE);
+        Path baseline = Path.of(System.getProperty(BASELINE_PROPERTY, DEFAULT_BASELINE));
+        if (Boolean.getBoolean(UPDATE_BASELINE_PROPERTY)) {
+            Files.copy(result, baseline, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Stored the result as the baseline " + baseline);
+            return;
+        }
+        if (!Files.exists(baseline)) {
+            System.out.println("No baseline " + baseline + " to compare with, run with -D"
+                    + UPDATE_BASELINE_PROPERTY + "=true to store one");
+            return;
+        }
+        double tolerance = Double.parseDouble(System.getProperty(TOLERANCE_PROPERTY, DEFAULT_TOLERANCE));
+        if (!new BaselineComparison(tolerance).compare(baseline, result)) {
+            System.out.println("Some benchmarks regressed against " + baseline);
+            System.exit(1);
+        }
+    }
+}
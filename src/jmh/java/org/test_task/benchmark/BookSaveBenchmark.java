@@ -0,0 +1,51 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.service.BookService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding a copy of a book. The copy is upserted with {@code ON CONFLICT DO UPDATE}, which H2 can't
+ * run, so the benchmark needs {@code benchmark.datasource.url} of a PostgreSQL database and is
+ * skipped without one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BookSaveBenchmark {
+    private static final CreateBookRequestDto BOOK = new CreateBookRequestDto("A saved book", "An Author");
+    private ConfigurableApplicationContext context;
+    private BookService bookService;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start();
+        bookService = context.getBean(BookService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BookDto save() {
+        return bookService.save(BOOK);
+    }
+}
@@ -0,0 +1,125 @@
+package org.test_task.benchmark;
+
+import org.postgresql.copy.CopyIn;
+import org.postgresql.core.BaseConnection;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+
+/**
+ * Writes the rows of one table in bulk: with {@code COPY} on PostgreSQL, with batched inserts on
+ * other databases. The rows are committed when the loader is closed, and every
+ * {@value #BATCH_SIZE} rows with batched inserts.
+ */
+abstract class BulkLoader implements AutoCloseable {
+    private static final int BATCH_SIZE = 10_000;
+    protected final Connection connection;
+    private long rows;
+
+    private BulkLoader(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * @param columns the columns of the rows, quoted where the database needs it
+     */
+    static BulkLoader open(Connection connection, String table, String... columns) throws SQLException {
+        connection.setAutoCommit(false);
+        return connection.isWrapperFor(BaseConnection.class)
+                ? new CopyLoader(connection, table, columns)
+                : new BatchLoader(connection, table, columns);
+    }
+
+    final void add(Object... values) throws SQLException {
+        write(values);
+        rows++;
+    }
+
+    final long rows() {
+        return rows;
+    }
+
+    protected abstract void write(Object[] values) throws SQLException;
+
+    @Override
+    public abstract void close() throws SQLException;
+
+    private static final class CopyLoader extends BulkLoader {
+        private static final int BUFFER_SIZE = 1 << 16;
+        private final CopyIn copyIn;
+        private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
+        private CopyLoader(Connection connection, String table, String[] columns) throws SQLException {
+            super(connection);
+            copyIn = connection.unwrap(BaseConnection.class).getCopyAPI().copyIn("COPY " + table
+                    + " (" + String.join(", ", columns) + ") FROM STDIN WITH (FORMAT csv)");
+        }
+
+        @Override
+        protected void write(Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    buffer.append(',');
+                }
+                if (values[i] instanceof String value) {
+                    buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+                } else {
+                    buffer.append(values[i]);
+                }
+            }
+            buffer.append('\n');
+            if (buffer.length() >= BUFFER_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            copyIn.endCopy();
+            connection.commit();
+        }
+
+        private void flush() throws SQLException {
+            byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+            buffer.setLength(0);
+        }
+    }
+
+    private static final class BatchLoader extends BulkLoader {
+        private final PreparedStatement statement;
+        private int batched;
+
+        private BatchLoader(Connection connection, String table, String[] columns) throws SQLException {
+            super(connection);
+            statement = connection.prepareStatement("INSERT INTO " + table + " (" + String.join(", ", columns)
+                    + ") VALUES (" + String.join(", ", Collections.nCopies(columns.length, "?")) + ")");
+        }
+
+        @Override
+        protected void write(Object[] values) throws SQLException {
+            for (int i = 0; i < values.length; i++) {
+                statement.setObject(i + 1, values[i]);
+            }
+            statement.addBatch();
+            if (++batched == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() throws SQLException {
+            flush();
+            statement.close();
+        }
+
+        private void flush() throws SQLException {
+            statement.executeBatch();
+            connection.commit();
+            batched = 0;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.test_task.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.test_task.model.BookLookupKey;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Measures what a slow client costs the server: it opens many connections which ask for a large
+ * page of books and never read the response, then reports threads, heap and resident memory per
+ * connection. Spring MVC on Tomcat keeps a request thread blocked in the write of every such
+ * response up to its thread limit; WebFlux on Netty keeps only the unsent bytes. Run it once per
+ * stack, each in a fresh JVM, since the other stack would stay in the heap. Configured by system
+ * properties:
+ * <ul>
+ *     <li>{@code footprint.stack} - {@code servlet} or {@code reactive}, {@value #DEFAULT_STACK} by default;</li>
+ *     <li>{@code footprint.connections} - number of slow clients, {@value #DEFAULT_CONNECTIONS} by default;</li>
+ *     <li>{@code footprint.page-size} - books per response, {@value #DEFAULT_PAGE_SIZE} by default;</li>
+ *     <li>{@code footprint.settle-time} - seconds to wait for the server to stall on the clients,
+ *     {@value #DEFAULT_SETTLE_SECONDS} by default.</li>
+ * </ul>
+ * The database is the one of {@link LibraryContext}; the in-memory one is filled with a page of
+ * books first. The clients live in the same JVM, their sockets cost the same in both stacks.
+ */
+public final class ConnectionFootprint {
+    private static final String DEFAULT_STACK = "servlet";
+    private static final String DEFAULT_CONNECTIONS = "1000";
+    private static final String DEFAULT_PAGE_SIZE = "2000";
+    private static final String DEFAULT_SETTLE_SECONDS = "5";
+    private static final int RECEIVE_BUFFER_BYTES = 1024;
+    private static final Path PROC_STATUS = Path.of("/proc/self/status");
+
+    private ConnectionFootprint() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String stack = System.getProperty("footprint.stack", DEFAULT_STACK);
+        int connections = Integer.parseInt(System.getProperty("footprint.connections", DEFAULT_CONNECTIONS));
+        int pageSize = Integer.parseInt(System.getProperty("footprint.page-size", DEFAULT_PAGE_SIZE));
+        long settleMillis = Long.parseLong(System.getProperty("footprint.settle-time", DEFAULT_SETTLE_SECONDS))
+                * 1000;
+        try (ConfigurableApplicationContext context = switch (stack) {
+            case "servlet" -> LibraryContext.startServer();
+            case "reactive" -> LibraryContext.startReactiveServer();
+            default -> throw new IllegalArgumentException("Unknown stack: " + stack);
+        }) {
+            if (!LibraryContext.hasExternalDatabase()) {
+                insertBooks(context, pageSize);
+            }
+            InetSocketAddress address = new InetSocketAddress("localhost", LibraryContext.port(context));
+            byte[] request = ("GET /books?size=" + pageSize + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            warmUp(address, request);
+            Sample before = Sample.take();
+            List<Socket> clients = new ArrayList<>(connections);
+            try {
+                for (int i = 0; i < connections; i++) {
+                    Socket client = new Socket();
+                    client.setReceiveBufferSize(RECEIVE_BUFFER_BYTES);
+                    client.connect(address);
+                    client.getOutputStream().write(request);
+                    clients.add(client);
+                }
+                Thread.sleep(settleMillis);
+                Sample after = Sample.take();
+                report(stack, connections, before, after);
+            } finally {
+                for (Socket client : clients) {
+                    client.close();
+                }
+            }
+        }
+    }
+
+    private static void insertBooks(ConfigurableApplicationContext context, int amount) {
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO books (title, author, amount, lookup_key) VALUES (?, ?, ?, ?)",
+                IntStream.rangeClosed(1, amount)
+                        .mapToObj(i -> new Object[]{"Title " + i, "Footprint Author", 1,
+                                BookLookupKey.of("Title " + i, "Footprint Author")})
+                        .toList());
+    }
+
+    /**
+     * Reads a few responses to the end, so the classes and buffers of a request are in place
+     * before the first sample.
+     */
+    private static void warmUp(InetSocketAddress address, byte[] request) throws IOException {
+        for (int i = 0; i < 20; i++) {
+            try (Socket client = new Socket()) {
+                client.connect(address);
+                client.getOutputStream().write(request);
+                client.shutdownOutput();
+                client.getInputStream().readAllBytes();
+            }
+        }
+    }
+
+    private static void report(String stack, int connections, Sample before, Sample after) {
+        System.out.printf("%s stack, %d slow connections%n", stack, connections);
+        System.out.printf("%-10s %12s %12s %16s%n", "", "before", "after", "per connection");
+        System.out.printf("%-10s %12d %12d %16.3f%n", "threads", before.threads(), after.threads(),
+                (double) (after.threads() - before.threads()) / connections);
+        System.out.printf("%-10s %12s %12s %16s%n", "heap", kib(before.heapBytes()), kib(after.heapBytes()),
+                kib((after.heapBytes() - before.heapBytes()) / connections));
+        if (before.residentBytes() >= 0) {
+            System.out.printf("%-10s %12s %12s %16s%n", "resident", kib(before.residentBytes()),
+                    kib(after.residentBytes()), kib((after.residentBytes() - before.residentBytes()) / connections));
+        }
+    }
+
+    private static String kib(long bytes) {
+        return String.format("%.1f KiB", bytes / 1024.0);
+    }
+
+    /**
+     * Threads, heap after a full collection and resident memory of the JVM; resident memory is
+     * read from {@code /proc} and is -1 where there is none.
+     */
+    private record Sample(int threads, long heapBytes, long residentBytes) {
+        static Sample take() throws IOException {
+            System.gc();
+            return new Sample(ManagementFactory.getThreadMXBean().getThreadCount(),
+                    ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed(), readResidentBytes());
+        }
+
+        private static long readResidentBytes() throws IOException {
+            if (!Files.isReadable(PROC_STATUS)) {
+                return -1;
+            }
+            return Files.readAllLines(PROC_STATUS).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                    .findFirst()
+                    .orElse(-1);
+        }
+    }
+}
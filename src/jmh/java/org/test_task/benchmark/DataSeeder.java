@@ -0,0 +1,234 @@
+package org.test_task.benchmark;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.test_task.model.BookLookupKey;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.SplittableRandom;
+import javax.sql.DataSource;
+
+/**
+ * Fills the database of {@code benchmark.datasource.url} with a large synthetic library for
+ * benchmarks, load tests and query plans. Liquibase creates the tables first. The data is
+ * deterministic: the same settings give the same rows, so runs against it can be compared.
+ * Configured by system properties:
+ * <ul>
+ *     <li>{@code seed.books} - number of titles, {@value #DEFAULT_BOOKS} by default;</li>
+ *     <li>{@code seed.members} - number of members, {@value #DEFAULT_MEMBERS} by default;</li>
+ *     <li>{@code seed.random-seed} - seed of the generated data, {@value #DEFAULT_RANDOM_SEED} by default;</li>
+ *     <li>{@code seed.zipf-exponent} - skew of the popularity of titles, {@value #DEFAULT_ZIPF_EXPONENT}
+ *     by default;</li>
+ *     <li>{@code seed.near-limit-share} - share of members who borrowed their limit of books or one
+ *     less, {@value #DEFAULT_NEAR_LIMIT_SHARE} by default, the others borrowed any number;</li>
+ *     <li>{@code seed.replace} - empty the tables first instead of refusing to seed a database
+ *     with data.</li>
+ * </ul>
+ * Loans are drawn from a Zipf distribution, so a few titles are borrowed by many members and
+ * most rarely. Popularity doesn't follow the book id. Authors have long names and write several
+ * books each. Dates are counted back from {@link #REFERENCE_DATE} rather than from today to keep
+ * the rows the same. On PostgreSQL the rows are loaded with {@code COPY}, elsewhere with batched
+ * inserts.
+ */
+public final class DataSeeder {
+    private static final String DEFAULT_BOOKS = "1000000";
+    private static final String DEFAULT_MEMBERS = "200000";
+    private static final String DEFAULT_RANDOM_SEED = "42";
+    private static final String DEFAULT_ZIPF_EXPONENT = "1.0";
+    private static final String DEFAULT_NEAR_LIMIT_SHARE = "0.8";
+    private static final String LIMIT_PROPERTY = "book.amount";
+    private static final LocalDateTime REFERENCE_DATE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final int BOOKS_PER_AUTHOR = 4;
+    private static final int MAX_SHELF_COPIES = 3;
+    private static final int LOAN_DAYS = 60;
+    private static final int MEMBERSHIP_DAYS = 3650;
+    private static final String[] SYLLABLES = {
+            "al", "bar", "cel", "dor", "en", "fal", "gor", "hen", "is", "jar", "ka", "lin", "mor", "nel",
+            "or", "pen", "quin", "ra", "sel", "tor", "ul", "van", "wen", "xan", "yor", "zel"
+    };
+    private static final String[] WORDS = {
+            "Silent", "River", "Garden", "Shadow", "Winter", "Glass", "Iron", "Summer", "Hidden", "Crimson",
+            "Northern", "Forgotten", "Golden", "Empty", "Distant", "House", "Kingdom", "Letters", "Voyage",
+            "Orchard", "Harbor", "Night", "Storm", "Mirror", "Of", "The", "Last", "Second", "Light", "Road"
+    };
+    private final int books;
+    private final int members;
+    private final long randomSeed;
+    private final double zipfExponent;
+    private final double nearLimitShare;
+    private final boolean replace;
+    private final int limit;
+
+    private DataSeeder(int limit) {
+        books = Integer.parseInt(System.getProperty("seed.books", DEFAULT_BOOKS));
+        members = Integer.parseInt(System.getProperty("seed.members", DEFAULT_MEMBERS));
+        randomSeed = Long.parseLong(System.getProperty("seed.random-seed", DEFAULT_RANDOM_SEED));
+        zipfExponent = Double.parseDouble(System.getProperty("seed.zipf-exponent", DEFAULT_ZIPF_EXPONENT));
+        nearLimitShare = Double.parseDouble(System.getProperty("seed.near-limit-share", DEFAULT_NEAR_LIMIT_SHARE));
+        replace = Boolean.getBoolean("seed.replace");
+        this.limit = limit;
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (!LibraryContext.hasExternalDatabase()) {
+            System.out.println("Pass the database to seed with -Dbenchmark.datasource.url");
+            System.exit(1);
+        }
+        try (ConfigurableApplicationContext context = LibraryContext.start()) {
+            int limit = context.getEnvironment().getRequiredProperty(LIMIT_PROPERTY, Integer.class);
+            new DataSeeder(limit).seed(context.getBean(DataSource.class));
+        }
+    }
+
+    private void seed(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgreSql = "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+            clear(connection, postgreSql);
+            load("books", () -> loadBooks(connection));
+            byte[] loansPerMember = new byte[members];
+            load("members", () -> loadMembers(connection, loansPerMember));
+            load("member_books", () -> loadLoans(connection, loansPerMember));
+            finish(connection, postgreSql);
+        }
+    }
+
+    private void clear(Connection connection, boolean postgreSql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            if (!replace) {
+                try (ResultSet resultSet = statement.executeQuery("SELECT (SELECT COUNT(*) FROM books)"
+                        + " + (SELECT COUNT(*) FROM members)")) {
+                    resultSet.next();
+                    if (resultSet.getLong(1) > 0) {
+                        throw new IllegalStateException("The database already has books or members,"
+                                + " pass -Dseed.replace=true to replace them");
+                    }
+                }
+                return;
+            }
+            if (postgreSql) {
+                statement.execute("TRUNCATE reservations, member_books, book_inventory_slots, books, members"
+                        + " RESTART IDENTITY");
+            } else {
+                for (String table : new String[]{"reservations", "member_books", "book_inventory_slots",
+                        "books", "members"}) {
+                    statement.execute("DELETE FROM " + table);
+                }
+            }
+        }
+    }
+
+    private long loadBooks(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(randomSeed);
+        String[] authors = new String[Math.max(1, books / BOOKS_PER_AUTHOR)];
+        for (int i = 0; i < authors.length; i++) {
+            authors[i] = name(random, 3, 5) + " " + name(random, 4, 7);
+        }
+        try (BulkLoader loader = BulkLoader.open(connection, "books", "id", "title", "author", "amount",
+                "lookup_key")) {
+            for (long id = 1; id <= books; id++) {
+                String title = title(random, id);
+                String author = authors[random.nextInt(authors.length)];
+                loader.add(id, title, author, random.nextInt(MAX_SHELF_COPIES + 1), BookLookupKey.of(title, author));
+            }
+            return loader.rows();
+        }
+    }
+
+    private long loadMembers(Connection connection, byte[] loansPerMember) throws SQLException {
+        SplittableRandom random = new SplittableRandom(randomSeed + 1);
+        try (BulkLoader loader = BulkLoader.open(connection, "members", "id", "name", "membership_dates",
+                "\"available book_amounts\"")) {
+            for (int member = 0; member < members; member++) {
+                int loans = random.nextDouble() < nearLimitShare
+                        ? Math.max(0, limit - random.nextInt(2))
+                        : random.nextInt(limit + 1);
+                loansPerMember[member] = (byte) loans;
+                loader.add(member + 1L, name(random, 2, 3) + " " + name(random, 3, 5),
+                        REFERENCE_DATE.toLocalDate().minusDays(random.nextInt(MEMBERSHIP_DAYS)), limit - loans);
+            }
+            return loader.rows();
+        }
+    }
+
+    private long loadLoans(Connection connection, byte[] loansPerMember) throws SQLException {
+        SplittableRandom random = new SplittableRandom(randomSeed + 2);
+        ZipfSampler popularity = new ZipfSampler(books, zipfExponent);
+        long stride = stride();
+        try (BulkLoader loader = BulkLoader.open(connection, "member_books", "member_id", "book_id",
+                "borrowed_at")) {
+            for (int member = 0; member < members; member++) {
+                for (int i = 0; i < loansPerMember[member]; i++) {
+                    long bookId = (popularity.next(random) + 1L) * stride % books + 1;
+                    loader.add(member + 1L, bookId,
+                            REFERENCE_DATE.minusSeconds(random.nextLong(LOAN_DAYS * 24L * 60 * 60)));
+                }
+            }
+            return loader.rows();
+        }
+    }
+
+    private void finish(Connection connection, boolean postgreSql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String table : new String[]{"books", "members"}) {
+                statement.execute(postgreSql
+                        ? "SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), (SELECT MAX(id) FROM "
+                        + table + "))"
+                        : "ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH "
+                        + ((table.equals("books") ? books : members) + 1));
+            }
+            statement.execute(postgreSql ? "ANALYZE books, members, member_books" : "ANALYZE");
+            connection.commit();
+        }
+    }
+
+    /**
+     * Spreads the popularity ranks over the book ids: a step coprime with the number of books
+     * visits every id once, so the popular titles aren't the first ones.
+     */
+    private long stride() {
+        long stride = Math.max(1, (long) (books * 0.618));
+        while (gcd(stride, books) != 1) {
+            stride++;
+        }
+        return stride;
+    }
+
+    private static long gcd(long a, long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private static String title(SplittableRandom random, long id) {
+        StringBuilder title = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+        int words = 1 + random.nextInt(3);
+        for (int i = 0; i < words; i++) {
+            title.append(' ').append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return title.append(' ').append(id).toString();
+    }
+
+    /**
+     * A capitalized word of the given number of syllables, valid in the author format.
+     */
+    private static String name(SplittableRandom random, int minSyllables, int maxSyllables) {
+        StringBuilder name = new StringBuilder();
+        int syllables = minSyllables + random.nextInt(maxSyllables - minSyllables + 1);
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private static void load(String table, Load load) throws SQLException {
+        long startedAt = System.nanoTime();
+        long rows = load.run();
+        System.out.printf("%s: %d rows in %.1f s%n", table, rows, (System.nanoTime() - startedAt) / 1e9);
+    }
+
+    private interface Load {
+        long run() throws SQLException;
+    }
+}
@@ -0,0 +1,97 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second of the web server in each {@code request.execution-mode}, with many more
+ * concurrent clients than database connections, so requests queue for the database as in a spike.
+ * The virtual mode needs Java 21, on older versions {@link BenchmarkRunner} measures the platform
+ * mode only.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(64)
+@Fork(1)
+public class ExecutionModeBenchmark {
+    static final String EXECUTION_MODE_PARAM = "executionMode";
+    private static final String BOOK = """
+            {"title":"A book","author":"An Author"}""";
+    @Param({"platform", "virtual"})
+    public String executionMode;
+    private ConfigurableApplicationContext context;
+    private HttpClient httpClient;
+    private URI baseUri;
+    private Long bookId;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.startServer("--request.execution-mode=" + executionMode);
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .build();
+        baseUri = URI.create("http://localhost:" + LibraryContext.port(context));
+        bookId = LibraryContext.insertBook(context, "A book", "An Author", 1_000_000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findBookById() throws IOException, InterruptedException {
+        return send(HttpRequest.newBuilder(baseUri.resolve("/books/" + bookId)).GET());
+    }
+
+    @Benchmark
+    public int borrowAndReturnBook(Client client) throws IOException, InterruptedException {
+        return send(client.request("/borrow")) + send(client.request("/return"));
+    }
+
+    private int send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    /**
+     * A member per benchmark thread, so the clients don't hit each other's limit of books.
+     */
+    @State(Scope.Thread)
+    public static class Client {
+        private URI memberUri;
+
+        @Setup
+        public void setUp(ExecutionModeBenchmark benchmark) {
+            Long memberId = LibraryContext.insertMember(benchmark.context,
+                    "Client" + Thread.currentThread().getId(), 10);
+            memberUri = benchmark.baseUri.resolve("/members/" + memberId);
+        }
+
+        HttpRequest.Builder request(String operation) {
+            return HttpRequest.newBuilder(URI.create(memberUri + operation))
+                    .header("Content-Type", "application/json")
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(BOOK));
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package org.test_task.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.test_task.Library;
+import org.test_task.model.BookLookupKey;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * The application for benchmarks, without the web layer for those of the services. It runs against an
+ * in-memory H2 database unless {@code benchmark.datasource.url} points to a real one, e.g.
+ * PostgreSQL or an H2 file; {@code benchmark.datasource.username} and
+ * {@code benchmark.datasource.password} are its credentials. The driver is picked by the URL.
+ */
+final class LibraryContext {
+    private static final String URL_PROPERTY = "benchmark.datasource.url";
+    private static final String USERNAME_PROPERTY = "benchmark.datasource.username";
+    private static final String PASSWORD_PROPERTY = "benchmark.datasource.password";
+    private static final String H2_URL = "jdbc:h2:mem:benchmark;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    private static final String R2DBC_H2_URL = "r2dbc:h2:mem:///benchmark?options=" + H2_URL
+            .substring(H2_URL.indexOf(';') + 1);
+
+    private LibraryContext() {
+    }
+
+    static boolean hasExternalDatabase() {
+        return !System.getProperty(URL_PROPERTY, "").isBlank();
+    }
+
+    static ConfigurableApplicationContext start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * Starts the application with its web server on a random port, see {@link #port}.
+     *
+     * @param arguments further command line arguments, e.g. {@code --request.execution-mode=virtual}
+     */
+    static ConfigurableApplicationContext startServer(String... arguments) {
+        return start(WebApplicationType.SERVLET, Stream.concat(Stream.of("--server.port=0"), Arrays.stream(arguments))
+                .toArray(String[]::new));
+    }
+
+    /**
+     * Starts the application with the reactive profile on Netty on a random port. Its R2DBC URL is
+     * the JDBC one with {@code r2dbc:} instead of {@code jdbc:}, e.g.
+     * {@code r2dbc:postgresql://localhost:5432/library}.
+     *
+     * @param arguments further command line arguments
+     */
+    static ConfigurableApplicationContext startReactiveServer(String... arguments) {
+        String url = hasExternalDatabase()
+                ? System.getProperty(URL_PROPERTY).replaceFirst("^jdbc:", "r2dbc:")
+                : R2DBC_H2_URL;
+        return start(WebApplicationType.REACTIVE, Stream.concat(Stream.of("--server.port=0",
+                "--spring.profiles.active=reactive", "--spring.r2dbc.url=" + url), Arrays.stream(arguments))
+                .toArray(String[]::new));
+    }
+
+    static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    private static ConfigurableApplicationContext start(WebApplicationType type, String... arguments) {
+        String[] datasource = hasExternalDatabase()
+                ? new String[]{
+                        "--spring.datasource.url=" + System.getProperty(URL_PROPERTY),
+                        "--spring.datasource.username=" + System.getProperty(USERNAME_PROPERTY, ""),
+                        "--spring.datasource.password=" + System.getProperty(PASSWORD_PROPERTY, ""),
+                        "--spring.datasource.driver-class-name="}
+                : new String[]{
+                        "--spring.datasource.url=" + H2_URL,
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.datasource.driver-class-name=org.h2.Driver"};
+        return new SpringApplicationBuilder(Library.class)
+                .web(type)
+                .logStartupInfo(false)
+                .properties("spring.main.banner-mode=off", "logging.level.root=WARN")
+                .run(Stream.concat(Arrays.stream(datasource), Arrays.stream(arguments)).toArray(String[]::new));
+    }
+
+    static Long insertBook(ConfigurableApplicationContext context, String title, String author, int amount) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String lookupKey = BookLookupKey.of(title, author);
+        jdbcTemplate.update("INSERT INTO books (title, author, amount, lookup_key) VALUES (?, ?, ?, ?)",
+                title, author, amount, lookupKey);
+        return jdbcTemplate.queryForObject("SELECT id FROM books WHERE lookup_key = ?", Long.class, lookupKey);
+    }
+
+    static Long insertMember(ConfigurableApplicationContext context, String name, int availableBookAmount) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO members (name, membership_dates, \"available book_amounts\")"
+                + " VALUES (?, CURRENT_DATE, ?)", name, availableBookAmount);
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM members WHERE name = ?", Long.class, name);
+    }
+}
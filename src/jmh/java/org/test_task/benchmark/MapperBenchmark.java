@@ -0,0 +1,76 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.CreateMemberRequestDto;
+import org.test_task.dto.member.MemberDto;
+import org.test_task.mapper.BookMapper;
+import org.test_task.mapper.MemberMapper;
+import org.test_task.mapper.impl.BookMapperImpl;
+import org.test_task.mapper.impl.MemberMapperImpl;
+import org.test_task.model.Book;
+import org.test_task.model.Member;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    private final BookMapper bookMapper = new BookMapperImpl();
+    private final MemberMapper memberMapper = new MemberMapperImpl();
+    private final CreateBookRequestDto bookRequest = new CreateBookRequestDto("A book", "An Author");
+    private final CreateMemberRequestDto memberRequest = new CreateMemberRequestDto("Alice");
+    private Book book;
+    private Member member;
+
+    @Setup
+    public void setUp() {
+        book = bookMapper.toBookModel(bookRequest);
+        book.setId(1L);
+        book.setAmount(3);
+        member = memberMapper.toMemberModel(memberRequest);
+        member.setId(1L);
+        member.setMembershipDate(LocalDate.now());
+        member.setAvailableBookAmount(10);
+    }
+
+    @Benchmark
+    public BookDto bookToDto() {
+        return bookMapper.toBookDto(book);
+    }
+
+    @Benchmark
+    public Book requestToBook() {
+        return bookMapper.toBookModel(bookRequest);
+    }
+
+    @Benchmark
+    public Book updateBook() {
+        bookMapper.updateBookModel(bookRequest, book);
+        return book;
+    }
+
+    @Benchmark
+    public MemberDto memberToDto() {
+        return memberMapper.toMemberDto(member);
+    }
+
+    @Benchmark
+    public Member requestToMember() {
+        return memberMapper.toMemberModel(memberRequest);
+    }
+}
@@ -0,0 +1,113 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.member.MemberDto;
+import org.test_task.mapper.BookMapper;
+import org.test_task.mapper.MemberMapper;
+import org.test_task.model.BookLookupKey;
+import org.test_task.repository.BookRepository;
+import org.test_task.repository.MemberRepository;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * A page of GET /books and GET /members read as DTOs straight from the query, as the services do,
+ * against loading the entities into the persistence context and mapping them. Both read the same
+ * rows in id order with one statement. The allocation per page is the point of the comparison, so
+ * run it with the GC profiler:
+ * {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=ProjectionBenchmark -Dbenchmark.profiler=gc}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectionBenchmark {
+    private static final int ROWS = 1000;
+    @Param({"20", "100", "1000"})
+    private int size;
+    private ConfigurableApplicationContext context;
+    private BookRepository bookRepository;
+    private MemberRepository memberRepository;
+    private BookMapper bookMapper;
+    private MemberMapper memberMapper;
+    private Pageable page;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start();
+        bookRepository = context.getBean(BookRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        bookMapper = context.getBean(BookMapper.class);
+        memberMapper = context.getBean(MemberMapper.class);
+        insertRows(context.getBean(JdbcTemplate.class));
+        page = PageRequest.of(0, size, Sort.by("id"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<BookDto> booksAsDtos() {
+        return bookRepository.findAllBookDtos(page).getContent();
+    }
+
+    @Benchmark
+    public List<BookDto> booksAsEntities() {
+        return bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, size)).stream()
+                .map(bookMapper::toBookDto)
+                .toList();
+    }
+
+    @Benchmark
+    public List<MemberDto> membersAsDtos() {
+        return memberRepository.findAllMemberDtos(page).getContent();
+    }
+
+    @Benchmark
+    public List<MemberDto> membersAsEntities() {
+        return memberRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, size)).stream()
+                .map(memberMapper::toMemberDto)
+                .toList();
+    }
+
+    /**
+     * Fills an empty or small database up to {@value #ROWS} books and members, so that every page
+     * size reads a full page; a seeded one is used as it is.
+     */
+    private static void insertRows(JdbcTemplate jdbcTemplate) {
+        long books = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author, amount, lookup_key) VALUES (?, ?, ?, ?)",
+                IntStream.range((int) Math.min(books, ROWS), ROWS)
+                        .mapToObj(i -> new Object[]{"A projected book " + i, "An Author", i % 10,
+                                BookLookupKey.of("A projected book " + i, "An Author")})
+                        .toList());
+        long members = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM members", Long.class);
+        jdbcTemplate.batchUpdate("INSERT INTO members (name, membership_dates, \"available book_amounts\")"
+                        + " VALUES (?, CURRENT_DATE, ?)",
+                IntStream.range((int) Math.min(members, ROWS), ROWS)
+                        .mapToObj(i -> new Object[]{"Member " + i, i % 11})
+                        .toList());
+    }
+}
@@ -0,0 +1,66 @@
+package org.test_task.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.MemberDto;
+import org.test_task.service.BookService;
+import org.test_task.service.MemberService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Borrowing and returning a book through the services and the database. A borrow is always
+ * followed by its return, so every invocation starts from the same state. The path through the
+ * proxies, Hibernate and the database needs tens of thousands of calls to be compiled, hence the
+ * long warm-up.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 10, time = 3)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final CreateBookRequestDto BOOK = new CreateBookRequestDto("A book", "An Author");
+    private ConfigurableApplicationContext context;
+    private MemberService memberService;
+    private BookService bookService;
+    private Long memberId;
+    private Long bookId;
+
+    @Setup
+    public void setUp() {
+        context = LibraryContext.start();
+        memberService = context.getBean(MemberService.class);
+        bookService = context.getBean(BookService.class);
+        bookId = LibraryContext.insertBook(context, BOOK.title(), BOOK.author(), 10);
+        memberId = LibraryContext.insertMember(context, "Benchmark", 10);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MemberDto borrowAndReturnBook() {
+        memberService.borrowBook(BOOK, memberId);
+        return memberService.returnBook(BOOK, memberId);
+    }
+
+    @Benchmark
+    public BookDto findBookById() {
+        return bookService.findById(bookId);
+    }
+}
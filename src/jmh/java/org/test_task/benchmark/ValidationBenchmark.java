@@ -0,0 +1,72 @@
+package org.test_task.benchmark;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.validation.book.author.AuthorNameValidator;
+import org.test_task.validation.book.title.TitleValidator;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The regular expressions of the title and author checks alone and the whole bean validation of
+ * a request, for a valid and an invalid book.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+    @Param({"valid", "invalid"})
+    private String input;
+    private final TitleValidator titleValidator = new TitleValidator();
+    private final AuthorNameValidator authorNameValidator = new AuthorNameValidator();
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    private CreateBookRequestDto requestDto;
+
+    @Setup
+    public void setUp() {
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        requestDto = "valid".equals(input)
+                ? new CreateBookRequestDto("The Lord of the Rings", "John Tolkien")
+                : new CreateBookRequestDto("the lord of the rings", "John Ronald Reuel Tolkien");
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public boolean title() {
+        return titleValidator.isValid(requestDto.title(), null);
+    }
+
+    @Benchmark
+    public boolean authorName() {
+        return authorNameValidator.isValid(requestDto.author(), null);
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<CreateBookRequestDto>> request() {
+        return validator.validate(requestDto);
+    }
+}
@@ -0,0 +1,33 @@
+package org.test_task.benchmark;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks from a Zipf distribution: rank {@code k} of {@code n} comes up with a probability
+ * proportional to {@code 1 / k^exponent}, so the first ranks take most of the draws and the long
+ * tail is rarely touched, as with the popularity of titles in a library.
+ */
+final class ZipfSampler {
+    private final double[] cumulative;
+
+    ZipfSampler(int size, double exponent) {
+        cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            sum += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = sum;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= sum;
+        }
+    }
+
+    /**
+     * @return a rank from zero, the most frequent one, to {@code size - 1}
+     */
+    int next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+    }
+}
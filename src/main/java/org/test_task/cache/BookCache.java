@@ -0,0 +1,77 @@
+package org.test_task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.test_task.dto.book.BookDto;
+import org.test_task.transaction.AfterCommit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Bounded caches of the book catalog: books by id and book ids by lookup key. Size, expiry and
+ * statistics are configured by {@code spring.cache.caffeine.spec}. Values are loaded atomically per
+ * key and evicted only after the changing transaction commits, so an eviction waits for a load of
+ * the same key which is in flight and no stale value outlives the write.
+ */
+@Component
+public class BookCache {
+    public final static String BOOKS_CACHE = "books";
+    public final static String BOOK_IDS_CACHE = "bookIds";
+    private final Cache<Long, BookDto> books;
+    private final Cache<String, Long> bookIds;
+
+    public BookCache(CacheManager cacheManager) {
+        this.books = nativeCache(cacheManager, BOOKS_CACHE);
+        this.bookIds = nativeCache(cacheManager, BOOK_IDS_CACHE);
+    }
+
+    /**
+     * Returns the cached book or loads it; a missing book ({@code null}) is not cached.
+     */
+    public BookDto getBook(Long id, Function<Long, BookDto> loader) {
+        return books.get(id, loader);
+    }
+
+    public Map<Long, BookDto> getBooks(Collection<Long> ids,
+                                       Function<List<Long>, Map<Long, BookDto>> loader) {
+        return books.getAll(ids, missingIds -> loader.apply(List.copyOf(missingIds)));
+    }
+
+    /**
+     * Returns the cached book id or loads it; an unknown lookup key ({@code null}) is not cached.
+     */
+    public Long getBookId(String lookupKey, Function<String, Long> loader) {
+        return bookIds.get(lookupKey, loader);
+    }
+
+    public Map<String, Long> getBookIds(Collection<String> lookupKeys,
+                                        Function<List<String>, Map<String, Long>> loader) {
+        return bookIds.getAll(lookupKeys, missingKeys -> loader.apply(List.copyOf(missingKeys)));
+    }
+
+    /**
+     * Drops the cached book, e.g. after its amount changed.
+     */
+    public void evictBook(Long id) {
+        AfterCommit.run(() -> books.invalidate(id));
+    }
+
+    /**
+     * Drops the cached book and its lookup key, e.g. after it was renamed or deleted.
+     */
+    public void evictBookAndLookupKey(Long id, String lookupKey) {
+        AfterCommit.run(() -> {
+            books.invalidate(id);
+            bookIds.invalidate(lookupKey);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Cache<K, V> nativeCache(CacheManager cacheManager, String name) {
+        return (Cache<K, V>) Objects.requireNonNull(cacheManager.getCache(name)).getNativeCache();
+    }
+}
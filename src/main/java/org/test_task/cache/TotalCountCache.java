@@ -0,0 +1,28 @@
+package org.test_task.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Row counts behind the optional totals of list endpoints. A count is computed on the first request
+ * and then reused until it expires, so a total may lag behind the latest writes for at most
+ * {@code cache.total-counts.ttl}.
+ */
+@Component
+public class TotalCountCache {
+    public final static String TOTAL_COUNTS_CACHE = "totalCounts";
+    private final Cache<String, Long> totalCounts;
+
+    @SuppressWarnings("unchecked")
+    public TotalCountCache(CacheManager cacheManager) {
+        this.totalCounts = (Cache<String, Long>) Objects.requireNonNull(
+                cacheManager.getCache(TOTAL_COUNTS_CACHE)).getNativeCache();
+    }
+
+    public long get(String key, Supplier<Long> counter) {
+        return totalCounts.get(key, ignored -> counter.get());
+    }
+}
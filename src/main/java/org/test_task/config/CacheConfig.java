@@ -0,0 +1,29 @@
+package org.test_task.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.test_task.cache.TotalCountCache;
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    private final static String TOTAL_COUNTS_TTL_PROPERTY = "cache.total-counts.ttl";
+    private final static int TOTAL_COUNTS_MAXIMUM_SIZE = 1000;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> totalCountsCacheCustomizer(Environment environment) {
+        Duration ttl = environment.getRequiredProperty(TOTAL_COUNTS_TTL_PROPERTY, Duration.class);
+        return cacheManager -> cacheManager.registerCustomCache(TotalCountCache.TOTAL_COUNTS_CACHE,
+                Caffeine.newBuilder()
+                        .maximumSize(TOTAL_COUNTS_MAXIMUM_SIZE)
+                        .expireAfterWrite(ttl)
+                        .recordStats()
+                        .build());
+    }
+}
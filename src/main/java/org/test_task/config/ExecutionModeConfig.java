@@ -0,0 +1,67 @@
+package org.test_task.config;
+
+import org.apache.tomcat.util.threads.VirtualThreadExecutor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.test_task.sql.ConnectionLimiter;
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread mode, turned on by {@code request.execution-mode=virtual}. Tomcat runs every
+ * request, those of {@code BookController} and {@code MemberController} included, on a new
+ * virtual thread instead of its fixed pool of platform threads, so requests blocked on JDBC no
+ * longer use the pool up. The database then becomes the limit, and Hikari already queues the
+ * threads waiting for a connection. A {@link ConnectionLimiter} is put in front of the pool only
+ * when {@code db.concurrency.permits} is positive: with as many permits as connections it would
+ * just be a second queue, so it is off by default. Set it below the pool size to keep connections
+ * free for work outside requests, such as lending returned copies to reservations, and to fail
+ * requests after {@code db.concurrency.max-wait}, which should be shorter than Hikari's
+ * connection timeout. Needs Java 21 or newer at runtime.
+ */
+@Configuration
+@ConditionalOnProperty(name = "request.execution-mode", havingValue = "virtual")
+public class ExecutionModeConfig {
+    private final static String THREAD_NAME_PREFIX = "request-";
+    private final static int VIRTUAL_THREADS_JAVA_VERSION = 21;
+    private final static String UNSUPPORTED_MESSAGE = "request.execution-mode=virtual needs Java 21 or newer,"
+            + " the application runs on Java ";
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        if (Runtime.version().feature() < VIRTUAL_THREADS_JAVA_VERSION) {
+            throw new IllegalStateException(UNSUPPORTED_MESSAGE + Runtime.version());
+        }
+        return protocolHandler -> protocolHandler.setExecutor(new VirtualThreadExecutor(THREAD_NAME_PREFIX));
+    }
+
+    @Configuration
+    @ConditionalOnExpression("${db.concurrency.permits} > 0")
+    static class ConnectionLimiterConfig {
+        @Bean
+        public static ConnectionLimiter connectionLimiter(Environment environment) {
+            return new ConnectionLimiter(
+                    environment.getRequiredProperty("db.concurrency.permits", Integer.class),
+                    DurationStyle.detectAndParse(environment.getRequiredProperty("db.concurrency.max-wait")));
+        }
+
+        @Bean
+        public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+                ObjectProvider<ConnectionLimiter> connectionLimiter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource
+                            ? connectionLimiter.getObject().limit(dataSource)
+                            : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package org.test_task.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+    public final static String SERVICE_TIMER = "library.service";
+
+    /**
+     * Times the methods of beans annotated with {@code @Timed}, e.g. every call of
+     * {@code BookService} and {@code MemberService} in the {@value #SERVICE_TIMER} timer tagged by
+     * class, method and exception. Percentiles are configured by
+     * {@code management.metrics.distribution.*}.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
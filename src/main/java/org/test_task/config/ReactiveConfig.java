@@ -0,0 +1,54 @@
+package org.test_task.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.web.ReactivePageableHandlerMethodArgumentResolver;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import org.springframework.web.reactive.result.method.annotation.ArgumentResolverConfigurer;
+
+/**
+ * The reactive profile: the application runs WebFlux on Netty instead of Spring MVC on Tomcat,
+ * and {@code ReactiveBookController} and {@code ReactiveMemberController} serve catalog browsing
+ * from R2DBC on a few event-loop threads. Writes, exports and streams stay with the servlet
+ * stack. The R2DBC connection pool is Spring Boot's own, configured by {@code spring.r2dbc.*};
+ * the other profiles leave its auto-configuration out. Its reactive transaction manager is left out
+ * in this profile too, so {@code @Transactional} keeps using the JPA one.
+ */
+@Profile("reactive")
+@Configuration
+public class ReactiveConfig implements WebFluxConfigurer {
+    @Bean
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties dataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    /**
+     * The JDBC data source of JPA and Liquibase, configured by {@code spring.datasource.*} as in the
+     * other profiles. Spring Boot doesn't configure one when there is an R2DBC connection factory.
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Netty instead of Tomcat, which Spring Boot would pick for WebFlux as well since it is on the
+     * classpath for the servlet stack.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Override
+    public void configureArgumentResolvers(ArgumentResolverConfigurer configurer) {
+        configurer.addCustomResolver(new ReactivePageableHandlerMethodArgumentResolver());
+    }
+}
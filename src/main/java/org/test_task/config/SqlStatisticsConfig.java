@@ -0,0 +1,35 @@
+package org.test_task.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.test_task.sql.StatementCountingProxies;
+import org.test_task.sql.StatementStatisticsFilter;
+import javax.sql.DataSource;
+
+/**
+ * Debug mode which counts the SQL statements of every request, see {@link StatementStatisticsFilter}.
+ * Turned on by {@code sql.statistics.enabled}; the test profile uses it to keep the statements of
+ * every endpoint within a budget.
+ */
+@Configuration
+@ConditionalOnProperty(name = "sql.statistics.enabled", havingValue = "true")
+public class SqlStatisticsConfig {
+    @Bean
+    public static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource
+                        ? StatementCountingProxies.dataSource(dataSource)
+                        : bean;
+            }
+        };
+    }
+
+    @Bean
+    public StatementStatisticsFilter statementStatisticsFilter() {
+        return new StatementStatisticsFilter();
+    }
+}
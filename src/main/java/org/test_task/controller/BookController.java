@@ -3,26 +3,51 @@ package org.test_task.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.test_task.dto.ExportFormat;
+import org.test_task.dto.book.BookAvailabilityDto;
 import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.BookImportFormat;
+import org.test_task.dto.book.BookImportResultDto;
 import org.test_task.dto.book.CreateBookRequestDto;
 import org.test_task.dto.book.ShowBookInfoResponseDto;
+import org.test_task.service.BookAvailabilityService;
+import org.test_task.service.BookImportService;
+import org.test_task.service.BookSearchService;
 import org.test_task.service.BookService;
+import org.test_task.service.ExportService;
 
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Tag(name = "Book management", description = "Endpoint for managing books")
+@Profile("!reactive")
 @Validated
 @RestController
 @AllArgsConstructor
 @RequestMapping("/books")
 public class BookController {
     private BookService bookService;
+    private BookImportService bookImportService;
+    private BookSearchService bookSearchService;
+    private ExportService exportService;
+    private BookAvailabilityService bookAvailabilityService;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -32,16 +57,68 @@ public class BookController {
         return bookService.save(requestDto);
     }
 
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Import books", description = "Here you can import a lot of books at once."
+            + " The body is a CSV file with title and author columns or a JSON object per line."
+            + " Every line adds one copy of the book. The charset of the content type is used, UTF-8 by default")
+    public BookImportResultDto importBooks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                           InputStream inputStream) {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        return bookImportService.importBooks(inputStream, BookImportFormat.of(contentType), charset);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Find book by id", description = "You can find here a specific book by unique identifier")
     public BookDto findById(@PathVariable @Positive Long id) {
         return bookService.findById(id);
     }
 
+    @GetMapping(value = "/{id}/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream availability of a book", description = "Server-Sent Events with the number"
+            + " of available copies of the book. The first event comes at once, the next ones whenever a copy"
+            + " is returned or added. Use it instead of retrying a borrow of an unavailable book")
+    public SseEmitter streamAvailability(@PathVariable @Positive Long id) {
+        return bookAvailabilityService.streamAvailability(id);
+    }
+
+    @GetMapping("/{id}/availability/wait")
+    @Operation(summary = "Wait for a copy of a book", description = "Long poll which answers as soon as"
+            + " the book has an available copy. If none becomes available in time, the answer is"
+            + " 204 No Content and the request may be repeated")
+    public DeferredResult<ResponseEntity<BookAvailabilityDto>> waitForCopy(@PathVariable @Positive Long id) {
+        return bookAvailabilityService.waitForCopy(id);
+    }
+
     @GetMapping
-    @Operation(summary = "Get all books", description = "This method returns all books")
-    public List<BookDto> getAll(Pageable pageable) {
-        return bookService.getAll(pageable);
+    @Operation(summary = "Get all books", description = "This method returns all books. Pass limit"
+            + " to page by id instead of page number and send the X-Next-Cursor header back as after."
+            + " Pass withTotal=true to get the number of books in the X-Total-Count header")
+    public ResponseEntity<List<BookDto>> getAll(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @Positive @Max(CursorPages.MAX_LIMIT) Integer limit,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        ResponseEntity<List<BookDto>> response = CursorPages.isRequested(after, limit)
+                ? CursorPages.toResponseEntity(bookService.getAll(after, CursorPages.limit(limit)))
+                : ResponseEntity.ok(bookService.getAll(pageable));
+        return TotalCountHeaders.withTotalCount(response, withTotal, bookService::countAll);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all books", description = "Streams the whole catalog ordered by id"
+            + " as CSV or as a JSON object per line (NDJSON, the default)")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(outputStream -> exportService.exportBooks(format, outputStream));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search books", description = "Finds books whose title or author contain all words"
+            + " of the query. Words may be typed partially. The best matches go first")
+    public List<BookDto> search(@RequestParam("q") @NotBlank String query, Pageable pageable) {
+        return bookSearchService.search(query, pageable);
     }
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -62,15 +139,37 @@ public class BookController {
 
     @GetMapping("/borrowed-books-titles")
     @Operation(summary = "Retrieve all titles of books which have been borrowed",
-    description = "The list of books doesn't have duplicates")
-    public List<String> getDistinctBookTitles(Pageable pageable) {
-        return bookService.findDistinctBorrowedBookTitle(pageable);
+    description = "The list of books doesn't have duplicates. Pass limit to page by title instead"
+            + " of page number and send the X-Next-Cursor header back as after. Pass withTotal=true"
+            + " to get the number of titles in the X-Total-Count header")
+    public ResponseEntity<List<String>> getDistinctBookTitles(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @Positive @Max(CursorPages.MAX_LIMIT) Integer limit,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        ResponseEntity<List<String>> response = CursorPages.isRequested(after, limit)
+                ? CursorPages.toResponseEntity(
+                        bookService.findDistinctBorrowedBookTitle(after, CursorPages.limit(limit)))
+                : ResponseEntity.ok(bookService.findDistinctBorrowedBookTitle(pageable));
+        return TotalCountHeaders.withTotalCount(response, withTotal,
+                bookService::countDistinctBorrowedBookTitles);
     }
 
     @GetMapping("/borrowed-books-info")
     @Operation(summary = "Retrieve information books which have been borrowed",
-    description = "Method returns titles and amount of books which have been borrowed")
-    public List<ShowBookInfoResponseDto> getDistinctBookTitlesAndAmount(Pageable pageable) {
-        return bookService.getDistinctBookTitlesAndAmount(pageable);
+    description = "Method returns titles and amount of books which have been borrowed. Pass limit"
+            + " to page by title instead of page number and send the X-Next-Cursor header back as after."
+            + " Pass withTotal=true to get the number of titles in the X-Total-Count header")
+    public ResponseEntity<List<ShowBookInfoResponseDto>> getDistinctBookTitlesAndAmount(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @Positive @Max(CursorPages.MAX_LIMIT) Integer limit,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        ResponseEntity<List<ShowBookInfoResponseDto>> response = CursorPages.isRequested(after, limit)
+                ? CursorPages.toResponseEntity(
+                        bookService.getDistinctBookTitlesAndAmount(after, CursorPages.limit(limit)))
+                : ResponseEntity.ok(bookService.getDistinctBookTitlesAndAmount(pageable));
+        return TotalCountHeaders.withTotalCount(response, withTotal,
+                bookService::countDistinctBorrowedBookTitles);
     }
 }
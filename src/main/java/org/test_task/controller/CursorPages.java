@@ -0,0 +1,34 @@
+package org.test_task.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.test_task.dto.CursorPage;
+import java.util.List;
+
+/**
+ * Response conventions of the cursor mode of list endpoints: the page is the body and the cursor
+ * of the next page, if any, is the {@value #NEXT_CURSOR_HEADER} header.
+ */
+final class CursorPages {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 1000;
+
+    private CursorPages() {
+    }
+
+    static boolean isRequested(String after, Integer limit) {
+        return after != null || limit != null;
+    }
+
+    static int limit(Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : limit;
+    }
+
+    static <T> ResponseEntity<List<T>> toResponseEntity(CursorPage<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return response.body(page.content());
+    }
+}
@@ -3,28 +3,43 @@ package org.test_task.controller;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.Positive;
 import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.test_task.dto.ExportFormat;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.BookBatchItemResultDto;
 import org.test_task.dto.member.CreateMemberRequestDto;
 import org.test_task.dto.member.MemberDto;
+import org.test_task.dto.reservation.ReservationDto;
+import org.test_task.service.ExportService;
 import org.test_task.service.MemberService;
+import org.test_task.service.ReservationService;
 
 import java.util.List;
 
 @Tag(name = "Member management", description = "Endpoint for managing members")
+@Profile("!reactive")
 @Validated
 @RestController
 @AllArgsConstructor
 @RequestMapping("/members")
 public class MemberController {
     private MemberService memberService;
+    private ExportService exportService;
+    private ReservationService reservationService;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping
@@ -34,9 +49,38 @@ public class MemberController {
     }
 
     @GetMapping
-    @Operation(summary = "Get all members", description = "Method allows to retrieve list of members")
-    public List<MemberDto> getAll(Pageable pageable) {
-        return memberService.getAll(pageable);
+    @Operation(summary = "Get all members", description = "Method allows to retrieve list of members."
+            + " Pass limit to page by id instead of page number and send the X-Next-Cursor header back as after."
+            + " Pass withTotal=true to get the number of members in the X-Total-Count header")
+    public ResponseEntity<List<MemberDto>> getAll(
+            Pageable pageable,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) @Positive @Max(CursorPages.MAX_LIMIT) Integer limit,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        ResponseEntity<List<MemberDto>> response = CursorPages.isRequested(after, limit)
+                ? CursorPages.toResponseEntity(memberService.getAll(after, CursorPages.limit(limit)))
+                : ResponseEntity.ok(memberService.getAll(pageable));
+        return TotalCountHeaders.withTotalCount(response, withTotal, memberService::countAll);
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Export all members", description = "Streams all members ordered by id"
+            + " as CSV or as a JSON object per line (NDJSON, the default)")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(outputStream -> exportService.exportMembers(format, outputStream));
+    }
+
+    @GetMapping("/borrowed-books/export")
+    @Operation(summary = "Export all borrowed books", description = "Streams every borrowing as member id"
+            + " and book id ordered by id, as CSV or as a JSON object per line (NDJSON, the default)")
+    public ResponseEntity<StreamingResponseBody> exportBorrowedBooks(
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(outputStream -> exportService.exportMemberBooks(format, outputStream));
     }
 
     @GetMapping("/{id}")
@@ -79,10 +123,67 @@ public class MemberController {
         return memberService.returnBook(requestDto, id);
     }
 
+    @ResponseStatus(HttpStatus.OK)
+    @PatchMapping("/{id}/borrow-batch")
+    @Operation(summary = "Borrow several books at once", description = "Here member can borrow a list"
+            + " of books in one request. The result of every book is returned in the same order")
+    public List<BookBatchItemResultDto> borrowBooks(
+            @RequestBody @NotEmpty List<@Valid CreateBookRequestDto> requestDtos,
+            @PathVariable @Positive Long id) {
+        return memberService.borrowBooks(requestDtos, id);
+    }
+
+    @ResponseStatus(HttpStatus.OK)
+    @PatchMapping("/{id}/return-batch")
+    @Operation(summary = "Return several books at once", description = "Here member can return a list"
+            + " of books in one request. The result of every book is returned in the same order")
+    public List<BookBatchItemResultDto> returnBooks(
+            @RequestBody @NotEmpty List<@Valid CreateBookRequestDto> requestDtos,
+            @PathVariable @Positive Long id) {
+        return memberService.returnBooks(requestDtos, id);
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/{id}/reservations")
+    @Operation(summary = "Reserve a book", description = "Here member can queue for a book which is"
+            + " not available now. A returned copy is lent to the members in the order of their reservations")
+    public ReservationDto reserve(@RequestBody @Validated CreateBookRequestDto requestDto,
+                                  @PathVariable @Positive Long id) {
+        return reservationService.reserve(requestDto, id);
+    }
+
+    @GetMapping("/{id}/reservations")
+    @Operation(summary = "Get member's reservations", description = "Method allows to retrieve list"
+            + " of books the member is waiting for")
+    public List<ReservationDto> getReservations(Pageable pageable, @PathVariable @Positive Long id) {
+        return reservationService.getReservations(id, pageable);
+    }
+
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    @DeleteMapping("/{id}/reservations/{reservationId}")
+    @Operation(summary = "Cancel a reservation", description = "Here member can leave the queue for a book")
+    public void cancelReservation(@PathVariable @Positive Long id,
+                                  @PathVariable @Positive Long reservationId) {
+        reservationService.cancel(id, reservationId);
+    }
+
+    @GetMapping(value = "/{id}/reservations/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream assigned reservations", description = "Server-sent events: an assigned"
+            + " event is sent every time a returned copy is lent to the member for one of the reservations")
+    public SseEmitter streamAssignments(@PathVariable @Positive Long id) {
+        return reservationService.streamAssignments(id);
+    }
+
     @GetMapping("/{name}/books")
     @Operation(summary = "Get all borrowed books by member's name", description = "This method return all "
-            + "borrowed books by member's name")
-    public List<BookDto> getAllBooksByMemberName(Pageable pageable, @PathVariable @NotBlank String name) {
-        return memberService.getAllBooksByMemberName(pageable, name);
+            + "borrowed books by member's name. Pass withTotal=true to get the number of books"
+            + " in the X-Total-Count header")
+    public ResponseEntity<List<BookDto>> getAllBooksByMemberName(
+            Pageable pageable,
+            @PathVariable @NotBlank String name,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return TotalCountHeaders.withTotalCount(
+                ResponseEntity.ok(memberService.getAllBooksByMemberName(pageable, name)),
+                withTotal, () -> memberService.countBooksByMemberName(name));
     }
 }
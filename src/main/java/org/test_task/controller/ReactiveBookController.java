@@ -0,0 +1,86 @@
+package org.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.ShowBookInfoResponseDto;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
+import org.test_task.repository.reactive.ReactiveBookRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+/**
+ * Catalog browsing of the reactive profile, served from R2DBC without a thread per request. The
+ * lists are paged by page number only.
+ */
+@Tag(name = "Book catalog", description = "Non-blocking endpoints for browsing books")
+@Profile("reactive")
+@Validated
+@RestController
+@AllArgsConstructor
+@RequestMapping("/books")
+public class ReactiveBookController {
+    private final static String BOOK_NOT_FOUND_MESSAGE = "There is no book with such id. ID: ";
+    private ReactiveBookRepository bookRepository;
+    private BookInventory bookInventory;
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Find book by id", description = "You can find here a book by unique identifier")
+    public Mono<BookDto> findById(@PathVariable @Positive Long id) {
+        Mono<BookDto> book = bookInventory.isStriped()
+                ? bookRepository.findStripedBookDtoById(id)
+                : bookRepository.findBookDtoById(id);
+        return book
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(BOOK_NOT_FOUND_MESSAGE + id)));
+    }
+
+    @GetMapping
+    @Operation(summary = "Get all books", description = "This method returns all books ordered by id."
+            + " Pass withTotal=true to get the number of books in the X-Total-Count header")
+    public Mono<ResponseEntity<List<BookDto>>> getAll(
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        Flux<BookDto> books = bookInventory.isStriped()
+                ? bookRepository.findAllStripedBookDtos(pageable.getPageSize(), pageable.getOffset())
+                : bookRepository.findAllBookDtos(pageable.getPageSize(), pageable.getOffset());
+        return ReactiveTotalCountHeaders.withTotalCount(books, withTotal, bookRepository::count);
+    }
+
+    @GetMapping("/borrowed-books-titles")
+    @Operation(summary = "Retrieve all titles of books which have been borrowed",
+            description = "The list of books doesn't have duplicates. Pass withTotal=true to get the"
+                    + " number of titles in the X-Total-Count header")
+    public Mono<ResponseEntity<List<String>>> getDistinctBookTitles(
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ReactiveTotalCountHeaders.withTotalCount(
+                bookRepository.findDistinctBorrowedBookTitle(pageable.getPageSize(), pageable.getOffset()),
+                withTotal, bookRepository::countDistinctBorrowedBookTitles);
+    }
+
+    @GetMapping("/borrowed-books-info")
+    @Operation(summary = "Retrieve information books which have been borrowed",
+            description = "Method returns titles and amount of books which have been borrowed."
+                    + " Pass withTotal=true to get the number of titles in the X-Total-Count header")
+    public Mono<ResponseEntity<List<ShowBookInfoResponseDto>>> getDistinctBookTitlesAndAmount(
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ReactiveTotalCountHeaders.withTotalCount(
+                bookRepository.countBorrowedBooksByTitle(pageable.getPageSize(), pageable.getOffset())
+                        .map(info -> new ShowBookInfoResponseDto(info.getTitle(), info.getAmount().intValue())),
+                withTotal, bookRepository::countDistinctBorrowedBookTitles);
+    }
+}
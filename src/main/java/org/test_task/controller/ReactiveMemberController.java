@@ -0,0 +1,74 @@
+package org.test_task.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.member.MemberDto;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
+import org.test_task.repository.reactive.ReactiveMemberRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+
+/**
+ * Member lookups of the reactive profile, served from R2DBC without a thread per request. The
+ * lists are paged by page number only.
+ */
+@Tag(name = "Member directory", description = "Non-blocking endpoints for browsing members")
+@Profile("reactive")
+@Validated
+@RestController
+@AllArgsConstructor
+@RequestMapping("/members")
+public class ReactiveMemberController {
+    private final static String MEMBER_NOT_FOUND_MESSAGE = "There is no member with such id. ID: ";
+    private ReactiveMemberRepository memberRepository;
+    private BookInventory bookInventory;
+
+    @GetMapping
+    @Operation(summary = "Get all members", description = "Method allows to retrieve list of members"
+            + " ordered by id. Pass withTotal=true to get the number of members in the X-Total-Count header")
+    public Mono<ResponseEntity<List<MemberDto>>> getAll(
+            Pageable pageable,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        return ReactiveTotalCountHeaders.withTotalCount(
+                memberRepository.findAllMemberDtos(pageable.getPageSize(), pageable.getOffset()),
+                withTotal, memberRepository::count);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Find member by id", description = "You can find here a member by unique identifier")
+    public Mono<MemberDto> findById(@PathVariable @Positive Long id) {
+        return memberRepository.findMemberDtoById(id)
+                .switchIfEmpty(Mono.error(() -> new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE + id)));
+    }
+
+    @GetMapping("/{name}/books")
+    @Operation(summary = "Get all borrowed books by member's name", description = "This method return all "
+            + "borrowed books by member's name. Pass withTotal=true to get the number of books"
+            + " in the X-Total-Count header")
+    public Mono<ResponseEntity<List<BookDto>>> getAllBooksByMemberName(
+            Pageable pageable,
+            @PathVariable @NotBlank String name,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        Flux<BookDto> books = bookInventory.isStriped()
+                ? memberRepository.findAllStripedBookDtosByMemberName(
+                        name, pageable.getPageSize(), pageable.getOffset())
+                : memberRepository.findAllBookDtosByMemberName(name, pageable.getPageSize(), pageable.getOffset());
+        return ReactiveTotalCountHeaders.withTotalCount(
+                books, withTotal, () -> memberRepository.countBooksByMemberName(name));
+    }
+}
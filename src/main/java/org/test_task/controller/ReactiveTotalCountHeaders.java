@@ -0,0 +1,27 @@
+package org.test_task.controller;
+
+import org.springframework.http.ResponseEntity;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * The reactive variant of {@link TotalCountHeaders}. The page is read to the end before it is
+ * written, so a client which reads slowly doesn't keep a pooled connection to the database busy.
+ */
+final class ReactiveTotalCountHeaders {
+    private ReactiveTotalCountHeaders() {
+    }
+
+    static <T> Mono<ResponseEntity<List<T>>> withTotalCount(Flux<T> rows, boolean withTotal,
+                                                          Supplier<Mono<Long>> totalCount) {
+        Mono<List<T>> page = rows.collectList();
+        if (!withTotal) {
+            return page.map(ResponseEntity::ok);
+        }
+        return page.zipWith(totalCount.get(), (body, total) -> ResponseEntity.ok()
+                .header(TotalCountHeaders.TOTAL_COUNT_HEADER, String.valueOf(total))
+                .body(body));
+    }
+}
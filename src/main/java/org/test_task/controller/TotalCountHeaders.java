@@ -0,0 +1,27 @@
+package org.test_task.controller;
+
+import org.springframework.http.ResponseEntity;
+import java.util.function.LongSupplier;
+
+/**
+ * List endpoints don't count rows unless the client passes {@code withTotal=true}; the total is
+ * then returned in the {@value #TOTAL_COUNT_HEADER} header and may be as old as
+ * {@code cache.total-counts.ttl}.
+ */
+final class TotalCountHeaders {
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    private TotalCountHeaders() {
+    }
+
+    static <T> ResponseEntity<T> withTotalCount(ResponseEntity<T> response, boolean withTotal,
+                                                LongSupplier totalCount) {
+        if (!withTotal) {
+            return response;
+        }
+        return ResponseEntity.status(response.getStatusCode())
+                .headers(response.getHeaders())
+                .header(TOTAL_COUNT_HEADER, String.valueOf(totalCount.getAsLong()))
+                .body(response.getBody());
+    }
+}
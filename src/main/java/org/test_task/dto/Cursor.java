@@ -0,0 +1,60 @@
+package org.test_task.dto;
+
+import org.test_task.exception.DataProcessingException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Opaque cursors of the keyset pagination. A cursor is the sort key of the last returned row,
+ * encoded so that clients pass it back unchanged instead of relying on its format.
+ */
+public final class Cursor {
+    private final static String INVALID_CURSOR_MESSAGE = "Invalid cursor: ";
+
+    private Cursor() {
+    }
+
+    /**
+     * Returns the cursor pointing after the last row, or {@code null} when the page is not full.
+     */
+    public static <T> String next(List<T> rows, int limit, Function<T, Object> sortKey) {
+        if (rows.size() < limit) {
+            return null;
+        }
+        return encode(String.valueOf(sortKey.apply(rows.get(rows.size() - 1))));
+    }
+
+    public static String encode(String sortKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor into a sort key; the first page has no cursor and starts from {@code ""}.
+     */
+    public static String decode(String cursor) {
+        if (cursor == null) {
+            return "";
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new DataProcessingException(INVALID_CURSOR_MESSAGE + cursor, e);
+        }
+    }
+
+    /**
+     * Decodes a cursor into an id; the first page has no cursor and starts from {@code 0}.
+     */
+    public static Long decodeId(String cursor) {
+        if (cursor == null) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(decode(cursor));
+        } catch (NumberFormatException e) {
+            throw new DataProcessingException(INVALID_CURSOR_MESSAGE + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.test_task.dto;
+
+import java.util.List;
+
+/**
+ * One page of a keyset (cursor) pagination. {@code nextCursor} is {@code null} on the last page.
+ */
+public record CursorPage<T>(List<T> content, String nextCursor) {
+}
@@ -0,0 +1,5 @@
+package org.test_task.dto.book;
+
+public record BookAvailabilityDto(Long id,
+                                  Integer amount) {
+}
@@ -1,6 +1,11 @@
 package org.test_task.dto.book;
 
+import org.test_task.model.BookLookupKey;
+
 public record BookDto(String title,
                       String author,
                       Integer amount) {
+    public String lookupKey() {
+        return BookLookupKey.of(title, author);
+    }
 }
@@ -0,0 +1,12 @@
+package org.test_task.dto.book;
+
+import java.util.List;
+
+public record BookImportResultDto(long totalRows,
+                                  long importedRows,
+                                  long rejectedRows,
+                                  long importedBooks,
+                                  List<String> rejectedLines,
+                                  long durationMillis,
+                                  double rowsPerSecond) {
+}
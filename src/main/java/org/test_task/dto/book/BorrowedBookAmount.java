@@ -0,0 +1,7 @@
+package org.test_task.dto.book;
+
+public interface BorrowedBookAmount {
+    String getTitle();
+
+    Long getAmount();
+}
@@ -1,5 +1,6 @@
 package org.test_task.dto.book;
 
+import org.test_task.model.BookLookupKey;
 import org.test_task.validation.book.author.AuthorName;
 import org.test_task.validation.book.title.Title;
 
@@ -7,4 +8,7 @@ public record CreateBookRequestDto(@Title
                                     String title,
                                    @AuthorName
                                    String author){
+    public String lookupKey() {
+        return BookLookupKey.of(title, author);
+    }
 }
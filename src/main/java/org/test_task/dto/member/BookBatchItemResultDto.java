@@ -0,0 +1,7 @@
+package org.test_task.dto.member;
+
+public record BookBatchItemResultDto(String title,
+                                     String author,
+                                     boolean succeeded,
+                                     String message) {
+}
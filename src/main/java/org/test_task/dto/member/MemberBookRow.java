@@ -0,0 +1,9 @@
+package org.test_task.dto.member;
+
+public interface MemberBookRow {
+    Long getId();
+
+    Long getMemberId();
+
+    Long getBookId();
+}
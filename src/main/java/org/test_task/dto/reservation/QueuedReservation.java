@@ -0,0 +1,7 @@
+package org.test_task.dto.reservation;
+
+public interface QueuedReservation {
+    Long getId();
+
+    Long getMemberId();
+}
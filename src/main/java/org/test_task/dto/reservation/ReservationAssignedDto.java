@@ -0,0 +1,6 @@
+package org.test_task.dto.reservation;
+
+public record ReservationAssignedDto(Long reservationId,
+                                     String title,
+                                     String author) {
+}
@@ -0,0 +1,9 @@
+package org.test_task.dto.reservation;
+
+import java.time.LocalDateTime;
+
+public record ReservationDto(Long id,
+                             String title,
+                             String author,
+                             LocalDateTime createdAt) {
+}
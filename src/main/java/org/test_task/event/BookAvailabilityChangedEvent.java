@@ -0,0 +1,8 @@
+package org.test_task.event;
+
+/**
+ * Published when copies of a book may have become available: a copy was returned or added, or the
+ * book was changed. Listeners get it after the publishing transaction commits.
+ */
+public record BookAvailabilityChangedEvent(Long bookId) {
+}
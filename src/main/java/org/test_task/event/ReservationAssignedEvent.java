@@ -0,0 +1,8 @@
+package org.test_task.event;
+
+/**
+ * Published when a returned copy was given to the member at the head of the book's reservation
+ * queue. Listeners get it after the return commits.
+ */
+public record ReservationAssignedEvent(Long reservationId, Long memberId, Long bookId) {
+}
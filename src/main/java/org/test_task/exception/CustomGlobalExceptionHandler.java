@@ -1,5 +1,10 @@
 package org.test_task.exception;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
@@ -17,8 +22,26 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Turns exceptions into responses. Every business rejection is counted in the
+ * {@value #REJECTIONS_METRIC} counter tagged by exception and reason; the reason is the message
+ * without the value appended after a colon, e.g. an id, to keep the number of series bounded.
+ * {@link ReactiveExceptionHandler} answers the same way for the reactive profile.
+ */
+@Profile("!reactive")
 @ControllerAdvice
 public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler {
+    public final static String REJECTIONS_METRIC = "library.rejections";
+    private final static String EXCEPTION_TAG = "exception";
+    private final static String REASON_TAG = "reason";
+    final static String CONCURRENT_UPDATE_MESSAGE
+            = "The data was changed by another request at the same time. Try again.";
+    private final MeterRegistry meterRegistry;
+
+    public CustomGlobalExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
     @Override
     protected ResponseEntity<Object> handleMethodArgumentNotValid(
             MethodArgumentNotValidException ex,
@@ -26,29 +49,59 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
             HttpStatusCode status,
             WebRequest request
     ) {
-        Map<String, Object> body = new LinkedHashMap<>();
-        body.put("timestamp", LocalDateTime.now());
-        body.put("status", HttpStatus.BAD_REQUEST);
         List<String> errors = ex.getBindingResult().getAllErrors().stream()
-                .map(this::getErrorMessage)
+                .map(CustomGlobalExceptionHandler::getErrorMessage)
                 .toList();
-        body.put("errors", errors);
-        return new ResponseEntity<>(body, headers, status);
+        return new ResponseEntity<>(getErrorBody(errors), headers, status);
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> constraintViolation(ConstraintViolationException ex) {
+        return ResponseEntity.badRequest()
+                .body(getErrorBody(getErrorMessages(ex)));
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handleEntityNotFound(EntityNotFoundException ex) {
+        countRejection(ex);
         return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(ex.getMessage());
     }
 
     @ExceptionHandler(DataProcessingException.class)
     public ResponseEntity<String> dataProcessingException(DataProcessingException ex) {
+        countRejection(ex);
         return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
                 .body(ex.getMessage());
     }
 
-    private String getErrorMessage(ObjectError e) {
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> optimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(CONCURRENT_UPDATE_MESSAGE);
+    }
+
+    private void countRejection(RuntimeException ex) {
+        countRejection(meterRegistry, ex);
+    }
+
+    static void countRejection(MeterRegistry meterRegistry, RuntimeException ex) {
+        String message = String.valueOf(ex.getMessage());
+        int valueStart = message.indexOf(':');
+        meterRegistry.counter(REJECTIONS_METRIC,
+                EXCEPTION_TAG, ex.getClass().getSimpleName(),
+                REASON_TAG, valueStart < 0 ? message : message.substring(0, valueStart)).increment();
+    }
+
+    static Map<String, Object> getErrorBody(List<String> errors) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("status", HttpStatus.BAD_REQUEST);
+        body.put("errors", errors);
+        return body;
+    }
+
+    static String getErrorMessage(ObjectError e) {
         if (e instanceof FieldError) {
             String field = ((FieldError) e).getField();
             String message = e.getDefaultMessage();
@@ -56,4 +109,14 @@ public class CustomGlobalExceptionHandler extends ResponseEntityExceptionHandler
         }
         return e.getDefaultMessage();
     }
+
+    /**
+     * Messages of violated constraints of method parameters, e.g. a path variable. The classes are
+     * compiled without parameter names, so the messages don't name the parameter.
+     */
+    static List<String> getErrorMessages(ConstraintViolationException ex) {
+        return ex.getConstraintViolations().stream()
+                .map(ConstraintViolation::getMessage)
+                .toList();
+    }
 }
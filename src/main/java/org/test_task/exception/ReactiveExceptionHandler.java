@@ -0,0 +1,61 @@
+package org.test_task.exception;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import java.util.List;
+
+/**
+ * Turns exceptions of the reactive controllers into responses, the same as
+ * {@link CustomGlobalExceptionHandler} does for the servlet stack, rejections counted included.
+ */
+@Profile("reactive")
+@RestControllerAdvice
+public class ReactiveExceptionHandler {
+    private final MeterRegistry meterRegistry;
+
+    public ReactiveExceptionHandler(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<Object> handleBindException(WebExchangeBindException ex) {
+        List<String> errors = ex.getBindingResult().getAllErrors().stream()
+                .map(CustomGlobalExceptionHandler::getErrorMessage)
+                .toList();
+        return ResponseEntity.badRequest()
+                .body(CustomGlobalExceptionHandler.getErrorBody(errors));
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Object> constraintViolation(ConstraintViolationException ex) {
+        return ResponseEntity.badRequest()
+                .body(CustomGlobalExceptionHandler.getErrorBody(CustomGlobalExceptionHandler.getErrorMessages(ex)));
+    }
+
+    @ExceptionHandler(EntityNotFoundException.class)
+    public ResponseEntity<String> handleEntityNotFound(EntityNotFoundException ex) {
+        CustomGlobalExceptionHandler.countRejection(meterRegistry, ex);
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(DataProcessingException.class)
+    public ResponseEntity<String> dataProcessingException(DataProcessingException ex) {
+        CustomGlobalExceptionHandler.countRejection(meterRegistry, ex);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> optimisticLockingFailure(OptimisticLockingFailureException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(CustomGlobalExceptionHandler.CONCURRENT_UPDATE_MESSAGE);
+    }
+}
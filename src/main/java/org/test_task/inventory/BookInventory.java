@@ -0,0 +1,172 @@
+package org.test_task.inventory;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import org.test_task.dto.book.BookDto;
+import org.test_task.repository.BookRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Takes and puts back the available copies of books. With {@code book.inventory.slots=1} a book's
+ * copies are counted on its {@code books} row. With more slots the inventory is striped: copies
+ * live in that many counters of {@code book_inventory_slots}, a borrow takes a copy from a random
+ * slot which has one and a return puts it into a random slot, so concurrent borrows of one title
+ * mostly lock different rows. Copies added to the book row later are spread into the slots by the
+ * first borrow which finds them empty. {@code Book.amount} is the row only, so readers of the
+ * available copies add {@link #slotAmounts} to it, which costs a query only with striping. When
+ * striping is turned off, the copies left in slots are moved back to the book rows at startup, so
+ * the property may be changed with a restart of all instances.
+ */
+@Component
+public class BookInventory {
+    private final static String SLOTS_PROPERTY = "book.inventory.slots";
+    private final BookRepository bookRepository;
+    private final int slots;
+
+    public BookInventory(BookRepository bookRepository, Environment environment) {
+        this.bookRepository = bookRepository;
+        this.slots = environment.getRequiredProperty(SLOTS_PROPERTY, Integer.class);
+    }
+
+    /**
+     * Takes one copy of the book.
+     *
+     * @return {@code false} if no copy is available
+     */
+    public boolean take(Long bookId) {
+        if (!isStriped()) {
+            return bookRepository.decrementAmount(bookId) > 0;
+        }
+        return bookRepository.takeFromSlot(bookId, randomSlot())
+                || takeFromAnySlot(bookId)
+                || bookRepository.spreadIntoSlots(bookId, slots) > 0 && takeFromAnySlot(bookId);
+    }
+
+    /**
+     * Takes one copy of every book. The book rows are locked in the given order, so callers pass the
+     * ids sorted and without duplicates, then batches sharing books can't deadlock each other.
+     *
+     * @return 1 for every book whose copy was taken, 0 for every unavailable one
+     */
+    public int[] take(List<Long> bookIds) {
+        if (isStriped()) {
+            return bookIds.stream().mapToInt(bookId -> take(bookId) ? 1 : 0).toArray();
+        }
+        return bookRepository.decrementBookAmounts(bookIds);
+    }
+
+    /**
+     * Copies of the books in their slots.
+     *
+     * @return the copies by book id, books without copies in slots are left out; always empty
+     * without striping
+     */
+    public Map<Long, Integer> slotAmounts(Collection<Long> bookIds) {
+        return isStriped() ? bookRepository.sumSlotAmounts(bookIds) : Map.of();
+    }
+
+    /**
+     * Copies of all books in their slots, see {@link #slotAmounts(Collection)}. Only hot titles are
+     * striped, so the map stays small.
+     */
+    public Map<Long, Integer> slotAmounts() {
+        return isStriped() ? bookRepository.sumSlotAmounts() : Map.of();
+    }
+
+    public int slotAmount(Long bookId) {
+        return slotAmounts(List.of(bookId)).getOrDefault(bookId, 0);
+    }
+
+    /**
+     * The book with the copies in its slots added to its amount.
+     */
+    public BookDto withSlotAmount(Long bookId, BookDto book) {
+        return isStriped() ? plusCopies(book, slotAmount(bookId)) : book;
+    }
+
+    /**
+     * The books by id with the copies in their slots added to their amounts.
+     */
+    public Map<Long, BookDto> withSlotAmounts(Map<Long, BookDto> books) {
+        if (!isStriped() || books.isEmpty()) {
+            return books;
+        }
+        Map<Long, Integer> amounts = slotAmounts(books.keySet());
+        return books.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                        book -> plusCopies(book.getValue(), amounts.getOrDefault(book.getKey(), 0))));
+    }
+
+    /**
+     * The books with the copies in their slots added to their amounts, for projections which have no
+     * book ids; the books are matched by their lookup keys.
+     */
+    public List<BookDto> withSlotAmounts(List<BookDto> books) {
+        if (!isStriped() || books.isEmpty()) {
+            return books;
+        }
+        Map<String, Integer> amounts = bookRepository.sumSlotAmountsByLookupKey(
+                books.stream().map(BookDto::lookupKey).collect(Collectors.toSet()));
+        return books.stream()
+                .map(book -> plusCopies(book, amounts.getOrDefault(book.lookupKey(), 0)))
+                .toList();
+    }
+
+    private static BookDto plusCopies(BookDto book, int copies) {
+        return copies == 0 ? book : new BookDto(book.title(), book.author(), book.amount() + copies);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void collectSlots() {
+        if (!isStriped()) {
+            bookRepository.collectSlots();
+        }
+    }
+
+    public void put(Long bookId) {
+        if (isStriped()) {
+            bookRepository.addToSlot(bookId, randomSlot(), 1);
+        } else {
+            bookRepository.incrementAmount(bookId);
+        }
+    }
+
+    /**
+     * Puts back one copy of every book, locking the book rows in the given order like
+     * {@link #take(List)}.
+     */
+    public void put(List<Long> bookIds) {
+        if (isStriped()) {
+            bookIds.forEach(this::put);
+        } else {
+            bookRepository.incrementBookAmounts(bookIds);
+        }
+    }
+
+    public boolean isStriped() {
+        return slots > 1;
+    }
+
+    private boolean takeFromAnySlot(Long bookId) {
+        List<Integer> slotsWithCopies = new ArrayList<>(bookRepository.findSlotsWithCopies(bookId));
+        Collections.shuffle(slotsWithCopies, ThreadLocalRandom.current());
+        for (Integer slot : slotsWithCopies) {
+            if (bookRepository.takeFromSlot(bookId, slot)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(slots);
+    }
+}
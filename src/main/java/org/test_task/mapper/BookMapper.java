@@ -1,6 +1,7 @@
 package org.test_task.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
 import org.test_task.config.MapperConfig;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
@@ -11,4 +12,6 @@ public interface BookMapper {
     BookDto toBookDto(Book book);
 
     Book toBookModel(CreateBookRequestDto requestDto);
+
+    void updateBookModel(CreateBookRequestDto requestDto, @MappingTarget Book book);
 }
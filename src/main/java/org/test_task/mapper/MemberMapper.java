@@ -1,6 +1,7 @@
 package org.test_task.mapper;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.MappingTarget;
 import org.test_task.config.MapperConfig;
 import org.test_task.dto.book.CreateBookRequestDto;
 import org.test_task.dto.member.CreateMemberRequestDto;
@@ -12,4 +13,6 @@ public interface MemberMapper {
     MemberDto toMemberDto(Member member);
 
     Member toMemberModel(CreateMemberRequestDto memberDto);
+
+    void updateMemberModel(CreateMemberRequestDto memberDto, @MappingTarget Member member);
 }
@@ -0,0 +1,68 @@
+package org.test_task.migration;
+
+import liquibase.change.custom.CustomTaskChange;
+import liquibase.database.Database;
+import liquibase.database.jvm.JdbcConnection;
+import liquibase.exception.CustomChangeException;
+import liquibase.exception.DatabaseException;
+import liquibase.exception.ValidationErrors;
+import liquibase.resource.ResourceAccessor;
+import org.test_task.model.BookLookupKey;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Fills books.lookup_key of the existing rows with {@link BookLookupKey}, the same function the
+ * application looks books up with. The database's lower() folds case by its own locale, so keys
+ * computed in SQL could differ from the application's ones for non-ASCII titles.
+ */
+public class FillBookLookupKeys implements CustomTaskChange {
+    private static final String SELECT_BOOKS_QUERY = "SELECT id, title, author FROM books";
+    private static final String UPDATE_LOOKUP_KEY_QUERY = "UPDATE books SET lookup_key = ? WHERE id = ?";
+    private static final int BATCH_SIZE = 1000;
+
+    @Override
+    public void execute(Database database) throws CustomChangeException {
+        JdbcConnection connection = (JdbcConnection) database.getConnection();
+        try (PreparedStatement select = connection.prepareStatement(SELECT_BOOKS_QUERY);
+             PreparedStatement update = connection.prepareStatement(UPDATE_LOOKUP_KEY_QUERY)) {
+            select.setFetchSize(BATCH_SIZE);
+            int batched = 0;
+            try (ResultSet books = select.executeQuery()) {
+                while (books.next()) {
+                    update.setString(1, BookLookupKey.of(books.getString(2), books.getString(3)));
+                    update.setLong(2, books.getLong(1));
+                    update.addBatch();
+                    if (++batched == BATCH_SIZE) {
+                        update.executeBatch();
+                        batched = 0;
+                    }
+                }
+            }
+            if (batched > 0) {
+                update.executeBatch();
+            }
+        } catch (DatabaseException | SQLException e) {
+            throw new CustomChangeException("Can't fill the lookup keys of books", e);
+        }
+    }
+
+    @Override
+    public String getConfirmationMessage() {
+        return "Lookup keys of books filled";
+    }
+
+    @Override
+    public void setUp() {
+    }
+
+    @Override
+    public void setFileOpener(ResourceAccessor resourceAccessor) {
+    }
+
+    @Override
+    public ValidationErrors validate(Database database) {
+        return new ValidationErrors();
+    }
+}
@@ -17,4 +17,14 @@ public class Book {
     @Column(nullable = false)
     private String author;
     private Integer amount;
+    @Column(name = "lookup_key", nullable = false)
+    private String lookupKey;
+    @Version
+    private Long version;
+
+    @PrePersist
+    @PreUpdate
+    private void updateLookupKey() {
+        lookupKey = BookLookupKey.of(title, author);
+    }
 }
@@ -0,0 +1,29 @@
+package org.test_task.model;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+
+/**
+ * Builds the value of the indexed books.lookup_key column: a SHA-256 hash of the case-folded
+ * title and author. Books are looked up by this key instead of comparing titles and authors.
+ */
+public final class BookLookupKey {
+    private static final char SEPARATOR = '\u001F';
+    private static final String ALGORITHM = "SHA-256";
+
+    private BookLookupKey() {
+    }
+
+    public static String of(String title, String author) {
+        String normalized = title.toLowerCase(Locale.ROOT) + SEPARATOR + author.toLowerCase(Locale.ROOT);
+        try {
+            MessageDigest digest = MessageDigest.getInstance(ALGORITHM);
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not supported", e);
+        }
+    }
+}
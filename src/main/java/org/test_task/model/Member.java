@@ -25,12 +25,10 @@ public class Member {
     private LocalDate membershipDate;
     @Column(name = "available book_amounts")
     private int availableBookAmount;
+    @Version
+    private Long version;
     @EqualsAndHashCode.Exclude
     @ToString.Exclude
-    @ManyToMany
-    @JoinTable(
-            name = "member_books",
-            joinColumns = @JoinColumn(name = "member_id"),
-            inverseJoinColumns = @JoinColumn(name = "book_id"))
-    private List<Book> books = new ArrayList<>();
+    @OneToMany(mappedBy = "member")
+    private List<Loan> loans = new ArrayList<>();
 }
@@ -0,0 +1,15 @@
+package org.test_task.model.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+/**
+ * A row of the books table as the R2DBC repositories see it. The copies in the inventory slots are
+ * not part of {@code amount}; queries which return it add them.
+ */
+@Table("books")
+public record BookRow(@Id Long id,
+                      String title,
+                      String author,
+                      Integer amount) {
+}
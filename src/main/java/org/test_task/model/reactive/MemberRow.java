@@ -0,0 +1,16 @@
+package org.test_task.model.reactive;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Column;
+import org.springframework.data.relational.core.mapping.Table;
+import java.time.LocalDate;
+
+/**
+ * A row of the members table as the R2DBC repositories see it. The number of books the member may
+ * still borrow is left out, its column name has a space; queries which return it select it.
+ */
+@Table("members")
+public record MemberRow(@Id Long id,
+                       String name,
+                       @Column("membership_dates") LocalDate membershipDate) {
+}
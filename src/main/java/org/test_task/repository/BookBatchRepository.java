@@ -0,0 +1,24 @@
+package org.test_task.repository;
+
+import org.test_task.dto.book.CreateBookRequestDto;
+import java.util.List;
+import java.util.Map;
+
+public interface BookBatchRepository {
+    /**
+     * Adds the given amount of copies to every book, creating the books which don't exist yet.
+     */
+    void addCopies(Map<CreateBookRequestDto, Integer> copies);
+
+    /**
+     * Takes one copy of every book in one batch, locking the rows in the given order.
+     *
+     * @return 1 for every book whose copy was taken, 0 for every unavailable one
+     */
+    int[] decrementBookAmounts(List<Long> bookIds);
+
+    /**
+     * Puts back one copy of every book in one batch, locking the rows in the given order.
+     */
+    void incrementBookAmounts(List<Long> bookIds);
+}
@@ -1,36 +1,88 @@
 package org.test_task.repository;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.BorrowedBookAmount;
 import org.test_task.model.Book;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface BookRepository extends JpaRepository<Book, Long> {
+public interface BookRepository extends JpaRepository<Book, Long>, BookBatchRepository, BookSlotRepository {
 
-    @Query("SELECT book.id FROM Book book "
-    + "WHERE book.title LIKE :title AND book.author LIKE :author")
-    long getIdByTitleAndAuthor(String title, String author);
+    @Query("SELECT book.id FROM Book book WHERE book.lookupKey = :lookupKey")
+    Optional<Long> getIdByLookupKey(@Param("lookupKey") String lookupKey);
 
-    @Query("SELECT book.amount FROM Book book "
-    + "WHERE book.title LIKE :title AND book.author LIKE :author")
-    Optional<Integer> getBookAmountByTitleAndAuthor(String title, String author);
+    @Transactional
+    @Query(value = "INSERT INTO books (title, author, amount, lookup_key)"
+            + " VALUES (:title, :author, 1, :lookupKey)"
+            + " ON CONFLICT (lookup_key) DO UPDATE SET amount = books.amount + 1, version = books.version + 1"
+            + " RETURNING id, title, author, amount, lookup_key, version", nativeQuery = true)
+    Book addCopy(@Param("title") String title, @Param("author") String author,
+                 @Param("lookupKey") String lookupKey);
 
-    @Query("SELECT book FROM Book book "
-    + " WHERE book.title LIKE :title AND book.author LIKE :author")
-    Optional<Book> findByAuthorAndTitle(String title, String author);
+    List<Book> findAllByLookupKeyIn(Collection<String> lookupKeys);
+
+    @Query("SELECT new org.test_task.dto.book.BookDto(book.title, book.author, book.amount) FROM Book book")
+    Slice<BookDto> findAllBookDtos(Pageable pageable);
+
+    @Query("SELECT new org.test_task.dto.book.BookDto(book.title, book.author, book.amount)"
+            + " FROM Book book WHERE book.id = :id")
+    Optional<BookDto> findBookDtoById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT book FROM Book book ORDER BY book.id")
+    Stream<Book> streamAll();
 
     @Query(value = "SELECT COUNT(*) > 0 FROM member_books" +
             " WHERE book_id = :id", nativeQuery = true)
     boolean areBookBorrowed(@Param("id") Long id);
 
-    @Query("SELECT DISTINCT book.title FROM Member member JOIN member.books book")
-    Page<String> findDistinctBorrowedBookTitle(Pageable pageable);
+    @Query("SELECT DISTINCT book.title FROM Loan loan JOIN loan.book book")
+    Slice<String> findDistinctBorrowedBookTitle(Pageable pageable);
+
+    @Query("SELECT COUNT(DISTINCT book.title) FROM Loan loan JOIN loan.book book")
+    long countDistinctBorrowedBookTitles();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Book> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Query("SELECT DISTINCT book.title FROM Loan loan JOIN loan.book book"
+            + " WHERE book.title > :after ORDER BY book.title")
+    List<String> findDistinctBorrowedBookTitleAfter(@Param("after") String after, Pageable pageable);
+
+    @Query(value = "SELECT b.title AS title, COUNT(*) AS amount"
+            + " FROM member_books mb JOIN books b ON mb.book_id = b.id"
+            + " WHERE b.title > :after GROUP BY b.title ORDER BY b.title", nativeQuery = true)
+    List<BorrowedBookAmount> countBorrowedBooksByTitleAfter(@Param("after") String after, Pageable pageable);
+
+    @Query(value = "SELECT b.title AS title, COUNT(*) AS amount"
+            + " FROM member_books mb JOIN books b ON mb.book_id = b.id"
+            + " GROUP BY b.title ORDER BY b.title", nativeQuery = true)
+    List<BorrowedBookAmount> countBorrowedBooksByTitle(Pageable pageable);
+
+    @Modifying
+    @Query(value = "UPDATE books SET amount = amount - 1, version = version + 1"
+            + " WHERE id = :id AND amount > 0", nativeQuery = true)
+    int decrementAmount(@Param("id") Long id);
 
-    @Query(value = "SELECT b.* FROM member_books mb JOIN books b ON mb.book_id = b.id", nativeQuery = true)
-    Page<Book> findAllBorrowedBooks(Pageable pageable);
+    @Modifying
+    @Query(value = "UPDATE books SET amount = amount + 1, version = version + 1 WHERE id = :id",
+            nativeQuery = true)
+    int incrementAmount(@Param("id") Long id);
 }
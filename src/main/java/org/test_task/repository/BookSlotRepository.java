@@ -0,0 +1,53 @@
+package org.test_task.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inventory slots of striped books: the available copies of a book may be split between its row in
+ * {@code books} and several counters in {@code book_inventory_slots}, see
+ * {@link org.test_task.inventory.BookInventory}.
+ */
+public interface BookSlotRepository {
+    /**
+     * Takes one copy from the slot if it has any.
+     */
+    boolean takeFromSlot(Long bookId, int slot);
+
+    List<Integer> findSlotsWithCopies(Long bookId);
+
+    void addToSlot(Long bookId, int slot, int amount);
+
+    /**
+     * Moves the copies counted on the book row into its first {@code slots} slots, evenly.
+     *
+     * @return the number of moved copies
+     */
+    int spreadIntoSlots(Long bookId, int slots);
+
+    /**
+     * Sums the copies in the slots of the books.
+     *
+     * @return the copies by book id, books without copies in slots are left out
+     */
+    Map<Long, Integer> sumSlotAmounts(Collection<Long> bookIds);
+
+    /**
+     * Sums the copies in the slots of all books, see {@link #sumSlotAmounts(Collection)}.
+     */
+    Map<Long, Integer> sumSlotAmounts();
+
+    /**
+     * Sums the copies in the slots of the books with the lookup keys, for reads which don't have the
+     * book ids, see {@link #sumSlotAmounts(Collection)}.
+     */
+    Map<String, Integer> sumSlotAmountsByLookupKey(Collection<String> lookupKeys);
+
+    /**
+     * Moves the copies of all slots back into the rows of their books and empties the slots.
+     *
+     * @return the number of books which got copies back
+     */
+    int collectSlots();
+}
@@ -0,0 +1,18 @@
+package org.test_task.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.test_task.model.Loan;
+
+@Repository
+public interface LoanRepository extends JpaRepository<Loan, Long> {
+    boolean existsByMemberId(Long memberId);
+
+    @Modifying
+    @Query(value = "DELETE FROM member_books WHERE id = (SELECT MIN(id) FROM member_books"
+            + " WHERE member_id = :memberId AND book_id = :bookId)", nativeQuery = true)
+    int deleteOldestLoan(@Param("memberId") Long memberId, @Param("bookId") Long bookId);
+}
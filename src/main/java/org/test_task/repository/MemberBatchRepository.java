@@ -0,0 +1,9 @@
+package org.test_task.repository;
+
+import java.util.List;
+
+public interface MemberBatchRepository {
+    void addBorrowedBooks(Long memberId, List<Long> bookIds);
+
+    int[] removeBorrowedBooks(Long memberId, List<Long> bookIds);
+}
@@ -1,16 +1,76 @@
 package org.test_task.repository;
 
-import org.springframework.data.domain.Page;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import org.test_task.model.Book;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.member.MemberBookRow;
+import org.test_task.dto.member.MemberDto;
 import org.test_task.model.Member;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface MemberRepository extends JpaRepository<Member, Long> {
-    @Query("SELECT books FROM Member member JOIN member.books books WHERE member.name = :name")
-    Page<Book> findAllBooksByMemberName(@Param("name") String name, Pageable pageable);
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberBatchRepository {
+    @Query("SELECT new org.test_task.dto.book.BookDto(book.title, book.author, book.amount)"
+            + " FROM Loan loan JOIN loan.member member JOIN loan.book book WHERE member.name = :name")
+    Slice<BookDto> findAllBookDtosByMemberName(@Param("name") String name, Pageable pageable);
+
+    @Query("SELECT COUNT(loan) FROM Loan loan JOIN loan.member member WHERE member.name = :name")
+    long countBooksByMemberName(@Param("name") String name);
+
+    @Query("SELECT new org.test_task.dto.member.MemberDto(member.name, member.membershipDate,"
+            + " member.availableBookAmount) FROM Member member")
+    Slice<MemberDto> findAllMemberDtos(Pageable pageable);
+
+    @Query("SELECT new org.test_task.dto.member.MemberDto(member.name, member.membershipDate,"
+            + " member.availableBookAmount) FROM Member member WHERE member.id = :id")
+    Optional<MemberDto> findMemberDtoById(@Param("id") Long id);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT member FROM Member member ORDER BY member.id")
+    Stream<Member> streamAll();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT mb.id AS id, mb.member_id AS memberId, mb.book_id AS bookId"
+            + " FROM member_books mb ORDER BY mb.id", nativeQuery = true)
+    Stream<MemberBookRow> streamAllMemberBooks();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"))
+    List<Member> findAllByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Member member SET member.availableBookAmount = member.availableBookAmount - 1, "
+            + "member.version = member.version + 1 "
+            + "WHERE member.id = :id AND member.availableBookAmount > 0")
+    int decrementAvailableBookAmount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Member member SET member.availableBookAmount = member.availableBookAmount + 1, "
+            + "member.version = member.version + 1 "
+            + "WHERE member.id = :id")
+    int incrementAvailableBookAmount(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Member member SET member.availableBookAmount = member.availableBookAmount - :amount, "
+            + "member.version = member.version + 1 "
+            + "WHERE member.id = :id AND member.availableBookAmount >= :amount")
+    int decreaseAvailableBookAmount(@Param("id") Long id, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE Member member SET member.availableBookAmount = member.availableBookAmount + :amount, "
+            + "member.version = member.version + 1 "
+            + "WHERE member.id = :id")
+    int increaseAvailableBookAmount(@Param("id") Long id, @Param("amount") int amount);
 }
@@ -0,0 +1,37 @@
+package org.test_task.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.test_task.dto.reservation.QueuedReservation;
+import org.test_task.dto.reservation.ReservationDto;
+import org.test_task.model.Reservation;
+import java.util.Optional;
+
+@Repository
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+    @Query(value = "SELECT r.id AS id, r.member_id AS memberId FROM reservations r"
+            + " WHERE r.book_id = :bookId ORDER BY r.id LIMIT 1", nativeQuery = true)
+    Optional<QueuedReservation> findQueueHead(@Param("bookId") Long bookId);
+
+    /**
+     * Removes the reservation from its queue; 0 means a concurrent transaction removed it first.
+     */
+    @Modifying
+    @Query("DELETE FROM Reservation reservation WHERE reservation.id = :id")
+    int dequeue(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM Reservation reservation WHERE reservation.id = :id AND reservation.member.id = :memberId")
+    int cancel(@Param("id") Long id, @Param("memberId") Long memberId);
+
+    @Query("SELECT new org.test_task.dto.reservation.ReservationDto("
+            + "reservation.id, book.title, book.author, reservation.createdAt)"
+            + " FROM Reservation reservation JOIN reservation.book book"
+            + " WHERE reservation.member.id = :memberId ORDER BY reservation.id")
+    Slice<ReservationDto> findAllReservationDtosByMemberId(@Param("memberId") Long memberId, Pageable pageable);
+}
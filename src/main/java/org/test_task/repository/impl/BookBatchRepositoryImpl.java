@@ -0,0 +1,49 @@
+package org.test_task.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.repository.BookBatchRepository;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookBatchRepositoryImpl implements BookBatchRepository {
+    private static final String ADD_COPIES_QUERY
+            = "INSERT INTO books (title, author, amount, lookup_key) VALUES (?, ?, ?, ?)"
+            + " ON CONFLICT (lookup_key) DO UPDATE SET amount = books.amount + EXCLUDED.amount,"
+            + " version = books.version + 1";
+    private static final String DECREMENT_BOOK_AMOUNT_QUERY
+            = "UPDATE books SET amount = amount - 1, version = version + 1 WHERE id = ? AND amount > 0";
+    private static final String INCREMENT_BOOK_AMOUNT_QUERY
+            = "UPDATE books SET amount = amount + 1, version = version + 1 WHERE id = ?";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void addCopies(Map<CreateBookRequestDto, Integer> copies) {
+        jdbcTemplate.batchUpdate(ADD_COPIES_QUERY, copies.entrySet(), copies.size(),
+                (statement, entry) -> {
+                    statement.setString(1, entry.getKey().title());
+                    statement.setString(2, entry.getKey().author());
+                    statement.setInt(3, entry.getValue());
+                    statement.setString(4, entry.getKey().lookupKey());
+                });
+    }
+
+    @Override
+    public int[] decrementBookAmounts(List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(DECREMENT_BOOK_AMOUNT_QUERY, bookIds, bookIds.size(),
+                (statement, bookId) -> statement.setLong(1, bookId))[0];
+    }
+
+    @Override
+    public void incrementBookAmounts(List<Long> bookIds) {
+        jdbcTemplate.batchUpdate(INCREMENT_BOOK_AMOUNT_QUERY, bookIds, bookIds.size(),
+                (statement, bookId) -> statement.setLong(1, bookId));
+    }
+}
@@ -0,0 +1,125 @@
+package org.test_task.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.repository.BookSlotRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class BookSlotRepositoryImpl implements BookSlotRepository {
+    private static final String TAKE_FROM_SLOT_QUERY
+            = "UPDATE book_inventory_slots SET amount = amount - 1"
+            + " WHERE book_id = ? AND slot = ? AND amount > 0";
+    private static final String FIND_SLOTS_WITH_COPIES_QUERY
+            = "SELECT slot FROM book_inventory_slots WHERE book_id = ? AND amount > 0";
+    private static final String ADD_TO_SLOT_QUERY
+            = "INSERT INTO book_inventory_slots (book_id, slot, amount) VALUES (?, ?, ?)"
+            + " ON CONFLICT (book_id, slot) DO UPDATE"
+            + " SET amount = book_inventory_slots.amount + EXCLUDED.amount";
+    private static final String LOCK_BOOK_AMOUNT_QUERY = "SELECT amount FROM books WHERE id = ? FOR UPDATE";
+    private static final String CLEAR_BOOK_AMOUNT_QUERY
+            = "UPDATE books SET amount = 0, version = version + 1 WHERE id = ?";
+    private static final String SUM_SLOT_AMOUNTS_QUERY
+            = "SELECT book_id, SUM(amount) FROM book_inventory_slots WHERE amount > 0%s GROUP BY book_id";
+    private static final String SUM_SLOT_AMOUNTS_BY_LOOKUP_KEY_QUERY
+            = "SELECT b.lookup_key, SUM(slots.amount) FROM book_inventory_slots slots"
+            + " JOIN books b ON b.id = slots.book_id"
+            + " WHERE slots.amount > 0 AND b.lookup_key IN (%s) GROUP BY b.lookup_key";
+    private static final String COLLECT_SLOTS_QUERY
+            = "UPDATE books SET amount = amount + (SELECT SUM(slots.amount) FROM book_inventory_slots slots"
+            + " WHERE slots.book_id = books.id), version = version + 1"
+            + " WHERE id IN (SELECT book_id FROM book_inventory_slots WHERE amount > 0)";
+    private static final String CLEAR_SLOTS_QUERY = "DELETE FROM book_inventory_slots";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean takeFromSlot(Long bookId, int slot) {
+        return jdbcTemplate.update(TAKE_FROM_SLOT_QUERY, bookId, slot) > 0;
+    }
+
+    @Override
+    public List<Integer> findSlotsWithCopies(Long bookId) {
+        return jdbcTemplate.queryForList(FIND_SLOTS_WITH_COPIES_QUERY, Integer.class, bookId);
+    }
+
+    @Override
+    public void addToSlot(Long bookId, int slot, int amount) {
+        jdbcTemplate.update(ADD_TO_SLOT_QUERY, bookId, slot, amount);
+    }
+
+    @Override
+    @Transactional
+    public int spreadIntoSlots(Long bookId, int slots) {
+        List<Integer> amounts = jdbcTemplate.queryForList(LOCK_BOOK_AMOUNT_QUERY, Integer.class, bookId);
+        if (amounts.isEmpty() || amounts.get(0) == null || amounts.get(0) <= 0) {
+            return 0;
+        }
+        int amount = amounts.get(0);
+        jdbcTemplate.update(CLEAR_BOOK_AMOUNT_QUERY, bookId);
+        List<int[]> shares = new ArrayList<>();
+        for (int slot = 0; slot < slots; slot++) {
+            int share = amount / slots + (slot < amount % slots ? 1 : 0);
+            if (share > 0) {
+                shares.add(new int[]{slot, share});
+            }
+        }
+        jdbcTemplate.batchUpdate(ADD_TO_SLOT_QUERY, shares, shares.size(), (statement, share) -> {
+            statement.setLong(1, bookId);
+            statement.setInt(2, share[0]);
+            statement.setInt(3, share[1]);
+        });
+        return amount;
+    }
+
+    @Override
+    public Map<Long, Integer> sumSlotAmounts(Collection<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return Map.of();
+        }
+        String bookIdFilter = " AND book_id IN (" + placeholders(bookIds.size()) + ")";
+        return sumSlotAmounts(SUM_SLOT_AMOUNTS_QUERY.formatted(bookIdFilter), bookIds.toArray());
+    }
+
+    @Override
+    public Map<Long, Integer> sumSlotAmounts() {
+        return sumSlotAmounts(SUM_SLOT_AMOUNTS_QUERY.formatted(""));
+    }
+
+    @Override
+    public Map<String, Integer> sumSlotAmountsByLookupKey(Collection<String> lookupKeys) {
+        if (lookupKeys.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Integer> amounts = new HashMap<>();
+        jdbcTemplate.query(SUM_SLOT_AMOUNTS_BY_LOOKUP_KEY_QUERY.formatted(placeholders(lookupKeys.size())),
+                (RowCallbackHandler) resultSet -> amounts.put(resultSet.getString(1), resultSet.getInt(2)),
+                lookupKeys.toArray());
+        return amounts;
+    }
+
+    @Override
+    @Transactional
+    public int collectSlots() {
+        int books = jdbcTemplate.update(COLLECT_SLOTS_QUERY);
+        jdbcTemplate.update(CLEAR_SLOTS_QUERY);
+        return books;
+    }
+
+    private Map<Long, Integer> sumSlotAmounts(String query, Object... arguments) {
+        Map<Long, Integer> amounts = new HashMap<>();
+        jdbcTemplate.query(query, (RowCallbackHandler) resultSet ->
+                amounts.put(resultSet.getLong(1), resultSet.getInt(2)), arguments);
+        return amounts;
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,37 @@
+package org.test_task.repository.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.test_task.repository.MemberBatchRepository;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class MemberBatchRepositoryImpl implements MemberBatchRepository {
+    private static final String ADD_BORROWED_BOOK_QUERY
+            = "INSERT INTO member_books (member_id, book_id) VALUES (?, ?)";
+    private static final String REMOVE_BORROWED_BOOK_QUERY
+            = "DELETE FROM member_books WHERE id = (SELECT MIN(id) FROM member_books"
+            + " WHERE member_id = ? AND book_id = ?)";
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void addBorrowedBooks(Long memberId, List<Long> bookIds) {
+        jdbcTemplate.batchUpdate(ADD_BORROWED_BOOK_QUERY, bookIds, bookIds.size(),
+                (statement, bookId) -> {
+                    statement.setLong(1, memberId);
+                    statement.setLong(2, bookId);
+                });
+    }
+
+    @Override
+    public int[] removeBorrowedBooks(Long memberId, List<Long> bookIds) {
+        if (bookIds.isEmpty()) {
+            return new int[0];
+        }
+        return jdbcTemplate.batchUpdate(REMOVE_BORROWED_BOOK_QUERY, bookIds, bookIds.size(),
+                (statement, bookId) -> {
+                    statement.setLong(1, memberId);
+                    statement.setLong(2, bookId);
+                })[0];
+    }
+}
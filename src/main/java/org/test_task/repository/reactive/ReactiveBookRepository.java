@@ -0,0 +1,45 @@
+package org.test_task.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.BorrowedBookAmount;
+import org.test_task.model.reactive.BookRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read queries of {@code BookRepository}, used by the reactive
+ * profile. Pages are passed as limit and offset. The striped variants add the copies in the
+ * inventory slots of the books and are used only when the inventory is striped.
+ */
+public interface ReactiveBookRepository extends R2dbcRepository<BookRow, Long> {
+    String BOOK_DTO_COLUMNS = "b.title, b.author, b.amount";
+    String STRIPED_BOOK_DTO_COLUMNS = "b.title, b.author, b.amount + (SELECT COALESCE(SUM(slots.amount), 0)"
+            + " FROM book_inventory_slots slots WHERE slots.book_id = b.id) AS amount";
+
+    @Query("SELECT " + BOOK_DTO_COLUMNS + " FROM books b WHERE b.id = :id")
+    Mono<BookDto> findBookDtoById(@Param("id") Long id);
+
+    @Query("SELECT " + STRIPED_BOOK_DTO_COLUMNS + " FROM books b WHERE b.id = :id")
+    Mono<BookDto> findStripedBookDtoById(@Param("id") Long id);
+
+    @Query("SELECT " + BOOK_DTO_COLUMNS + " FROM books b ORDER BY b.id LIMIT :limit OFFSET :offset")
+    Flux<BookDto> findAllBookDtos(@Param("limit") int limit, @Param("offset") long offset);
+
+    @Query("SELECT " + STRIPED_BOOK_DTO_COLUMNS + " FROM books b ORDER BY b.id LIMIT :limit OFFSET :offset")
+    Flux<BookDto> findAllStripedBookDtos(@Param("limit") int limit, @Param("offset") long offset);
+
+    @Query("SELECT DISTINCT b.title FROM member_books mb JOIN books b ON mb.book_id = b.id"
+            + " ORDER BY b.title LIMIT :limit OFFSET :offset")
+    Flux<String> findDistinctBorrowedBookTitle(@Param("limit") int limit, @Param("offset") long offset);
+
+    @Query("SELECT COUNT(DISTINCT b.title) FROM member_books mb JOIN books b ON mb.book_id = b.id")
+    Mono<Long> countDistinctBorrowedBookTitles();
+
+    @Query("SELECT b.title AS title, COUNT(*) AS amount"
+            + " FROM member_books mb JOIN books b ON mb.book_id = b.id"
+            + " GROUP BY b.title ORDER BY b.title LIMIT :limit OFFSET :offset")
+    Flux<BorrowedBookAmount> countBorrowedBooksByTitle(@Param("limit") int limit, @Param("offset") long offset);
+}
@@ -0,0 +1,40 @@
+package org.test_task.repository.reactive;
+
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.r2dbc.repository.R2dbcRepository;
+import org.springframework.data.repository.query.Param;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.member.MemberDto;
+import org.test_task.model.reactive.MemberRow;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of the read queries of {@code MemberRepository}, used by the reactive
+ * profile. Pages are passed as limit and offset.
+ */
+public interface ReactiveMemberRepository extends R2dbcRepository<MemberRow, Long> {
+    String MEMBER_DTO_COLUMNS = "m.name, m.membership_dates AS membership_date,"
+            + " m.\"available book_amounts\" AS available_book_amount";
+
+    @Query("SELECT " + MEMBER_DTO_COLUMNS + " FROM members m WHERE m.id = :id")
+    Mono<MemberDto> findMemberDtoById(@Param("id") Long id);
+
+    @Query("SELECT " + MEMBER_DTO_COLUMNS + " FROM members m ORDER BY m.id LIMIT :limit OFFSET :offset")
+    Flux<MemberDto> findAllMemberDtos(@Param("limit") int limit, @Param("offset") long offset);
+
+    @Query("SELECT " + ReactiveBookRepository.BOOK_DTO_COLUMNS
+            + " FROM member_books mb JOIN members m ON mb.member_id = m.id JOIN books b ON mb.book_id = b.id"
+            + " WHERE m.name = :name ORDER BY mb.id LIMIT :limit OFFSET :offset")
+    Flux<BookDto> findAllBookDtosByMemberName(@Param("name") String name, @Param("limit") int limit,
+                                              @Param("offset") long offset);
+
+    @Query("SELECT " + ReactiveBookRepository.STRIPED_BOOK_DTO_COLUMNS
+            + " FROM member_books mb JOIN members m ON mb.member_id = m.id JOIN books b ON mb.book_id = b.id"
+            + " WHERE m.name = :name ORDER BY mb.id LIMIT :limit OFFSET :offset")
+    Flux<BookDto> findAllStripedBookDtosByMemberName(@Param("name") String name, @Param("limit") int limit,
+                                                     @Param("offset") long offset);
+
+    @Query("SELECT COUNT(*) FROM member_books mb JOIN members m ON mb.member_id = m.id WHERE m.name = :name")
+    Mono<Long> countBooksByMemberName(@Param("name") String name);
+}
@@ -0,0 +1,82 @@
+package org.test_task.retry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.env.Environment;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Runs {@link RetryOnConflict} methods again when their transaction fails on a stale version, at
+ * most {@code retry.conflict.max-attempts} times. Before each retry it sleeps a random time up to an
+ * exponentially growing ceiling ({@code retry.conflict.initial-backoff}, capped by
+ * {@code retry.conflict.max-backoff}), so writers which collided do not collide again in lockstep.
+ * The aspect wraps the transaction; a method called inside an outer transaction runs once and
+ * leaves the retry to the outermost one. Every conflict, retry and exhausted call is counted per
+ * method in the {@code library.conflicts}, {@code library.conflict.retries} and
+ * {@code library.conflict.failures} counters.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class OptimisticLockRetryAspect {
+    public final static String CONFLICTS_METRIC = "library.conflicts";
+    public final static String RETRIES_METRIC = "library.conflict.retries";
+    public final static String FAILURES_METRIC = "library.conflict.failures";
+    private final static String OPERATION_TAG = "operation";
+    private final static String MAX_ATTEMPTS_PROPERTY = "retry.conflict.max-attempts";
+    private final static String INITIAL_BACKOFF_PROPERTY = "retry.conflict.initial-backoff";
+    private final static String MAX_BACKOFF_PROPERTY = "retry.conflict.max-backoff";
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public OptimisticLockRetryAspect(MeterRegistry meterRegistry, Environment environment) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = environment.getRequiredProperty(MAX_ATTEMPTS_PROPERTY, Integer.class);
+        this.initialBackoffMillis = environment.getRequiredProperty(
+                INITIAL_BACKOFF_PROPERTY, Duration.class).toMillis();
+        this.maxBackoffMillis = environment.getRequiredProperty(
+                MAX_BACKOFF_PROPERTY, Duration.class).toMillis();
+    }
+
+    @Around("@annotation(org.test_task.retry.RetryOnConflict)")
+    public Object retryOnConflict(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException e) {
+                meterRegistry.counter(CONFLICTS_METRIC, OPERATION_TAG, operation).increment();
+                if (attempt == maxAttempts) {
+                    meterRegistry.counter(FAILURES_METRIC, OPERATION_TAG, operation).increment();
+                    throw e;
+                }
+                backOff(attempt, e);
+                meterRegistry.counter(RETRIES_METRIC, OPERATION_TAG, operation).increment();
+            }
+        }
+    }
+
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 30));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+}
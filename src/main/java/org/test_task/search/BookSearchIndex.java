@@ -0,0 +1,159 @@
+package org.test_task.search;
+
+import org.springframework.stereotype.Component;
+import org.test_task.transaction.AfterCommit;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory full-text index over book titles and authors. Every word is a term of a sorted
+ * dictionary which points to the ids of the books containing it, so both exact words and word
+ * prefixes are resolved by a range lookup. A book matches a query when every query word is a word
+ * or a prefix of a word of the book; exact title matches rank highest, author prefixes lowest.
+ * Books are put and removed once the current transaction commits, so rolled back writes are never
+ * searchable.
+ */
+@Component
+public class BookSearchIndex {
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final char MAX_CHAR = Character.MAX_VALUE;
+    private final NavigableMap<String, Set<Long>> postings = new TreeMap<>();
+    private final Map<Long, IndexedBook> books = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public void put(Long id, String title, String author) {
+        IndexedBook book = new IndexedBook(id, title, tokenize(title), tokenize(author));
+        AfterCommit.run(() -> putNow(book));
+    }
+
+    public void remove(Long id) {
+        AfterCommit.run(() -> removeNow(id));
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            books.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Returns ids of the matching books ordered by relevance, then by title and id.
+     */
+    public List<Long> search(String query, long offset, int limit) {
+        Set<String> queryWords = tokenize(query);
+        if (queryWords.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Set<Long> candidates = null;
+            for (String queryWord : queryWords) {
+                Set<Long> matches = new HashSet<>();
+                postings.subMap(queryWord, true, queryWord + MAX_CHAR, false)
+                        .values().forEach(matches::addAll);
+                if (candidates == null) {
+                    candidates = matches;
+                } else {
+                    candidates.retainAll(matches);
+                }
+                if (candidates.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return candidates.stream()
+                    .map(id -> new ScoredBook(books.get(id), books.get(id).score(queryWords)))
+                    .sorted(Comparator.comparingInt(ScoredBook::score).reversed()
+                            .thenComparing(scoredBook -> scoredBook.book().title())
+                            .thenComparing(scoredBook -> scoredBook.book().id()))
+                    .skip(offset)
+                    .limit(limit)
+                    .map(scoredBook -> scoredBook.book().id())
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void putNow(IndexedBook book) {
+        Long id = book.id();
+        lock.writeLock().lock();
+        try {
+            removeBook(id);
+            books.put(id, book);
+            book.words().forEach(word -> postings.computeIfAbsent(word, key -> new HashSet<>()).add(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeNow(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeBook(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeBook(Long id) {
+        IndexedBook book = books.remove(id);
+        if (book == null) {
+            return;
+        }
+        for (String word : book.words()) {
+            Set<Long> ids = postings.get(word);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    private static Set<String> tokenize(String text) {
+        return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT)))
+                .filter(word -> !word.isEmpty())
+                .collect(Collectors.toSet());
+    }
+
+    private record ScoredBook(IndexedBook book, int score) {
+    }
+
+    private record IndexedBook(Long id, String title, Set<String> titleWords, Set<String> authorWords) {
+        private Set<String> words() {
+            Set<String> words = new HashSet<>(titleWords);
+            words.addAll(authorWords);
+            return words;
+        }
+
+        private int score(Set<String> queryWords) {
+            int score = 0;
+            for (String queryWord : queryWords) {
+                score += Math.max(score(titleWords, queryWord, 4), score(authorWords, queryWord, 2));
+            }
+            return score;
+        }
+
+        private static int score(Set<String> words, String queryWord, int exactMatchScore) {
+            if (words.contains(queryWord)) {
+                return exactMatchScore;
+            }
+            return words.stream().anyMatch(word -> word.startsWith(queryWord)) ? exactMatchScore / 2 : 0;
+        }
+    }
+}
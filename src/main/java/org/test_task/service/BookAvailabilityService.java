@@ -0,0 +1,12 @@
+package org.test_task.service;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.test_task.dto.book.BookAvailabilityDto;
+
+public interface BookAvailabilityService {
+    SseEmitter streamAvailability(Long id);
+
+    DeferredResult<ResponseEntity<BookAvailabilityDto>> waitForCopy(Long id);
+}
@@ -0,0 +1,10 @@
+package org.test_task.service;
+
+import org.test_task.dto.book.BookImportFormat;
+import org.test_task.dto.book.BookImportResultDto;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+public interface BookImportService {
+    BookImportResultDto importBooks(InputStream inputStream, BookImportFormat format, Charset charset);
+}
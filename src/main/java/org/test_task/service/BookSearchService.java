@@ -0,0 +1,11 @@
+package org.test_task.service;
+
+import org.springframework.data.domain.Pageable;
+import org.test_task.dto.book.BookDto;
+import java.util.List;
+
+public interface BookSearchService {
+    List<BookDto> search(String query, Pageable pageable);
+
+    void rebuildIndex();
+}
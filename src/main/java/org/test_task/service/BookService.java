@@ -1,6 +1,7 @@
 package org.test_task.service;
 
 import org.springframework.data.domain.Pageable;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
 import org.test_task.dto.book.ShowBookInfoResponseDto;
@@ -17,7 +18,17 @@ public interface BookService {
 
     List<BookDto> getAll(Pageable pageable);
 
+    CursorPage<BookDto> getAll(String after, int limit);
+
+    long countAll();
+
     List<String> findDistinctBorrowedBookTitle(Pageable pageable);
 
+    CursorPage<String> findDistinctBorrowedBookTitle(String after, int limit);
+
+    long countDistinctBorrowedBookTitles();
+
     List<ShowBookInfoResponseDto> getDistinctBookTitlesAndAmount(Pageable pageable);
+
+    CursorPage<ShowBookInfoResponseDto> getDistinctBookTitlesAndAmount(String after, int limit);
 }
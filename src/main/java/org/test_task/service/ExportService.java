@@ -0,0 +1,12 @@
+package org.test_task.service;
+
+import org.test_task.dto.ExportFormat;
+import java.io.OutputStream;
+
+public interface ExportService {
+    void exportBooks(ExportFormat format, OutputStream outputStream);
+
+    void exportMembers(ExportFormat format, OutputStream outputStream);
+
+    void exportMemberBooks(ExportFormat format, OutputStream outputStream);
+}
@@ -1,8 +1,10 @@
 package org.test_task.service;
 
 import org.springframework.data.domain.Pageable;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.BookBatchItemResultDto;
 import org.test_task.dto.member.CreateMemberRequestDto;
 import org.test_task.dto.member.MemberDto;
 import java.util.List;
@@ -12,6 +14,10 @@ public interface MemberService {
 
     List<MemberDto> getAll(Pageable pageable);
 
+    CursorPage<MemberDto> getAll(String after, int limit);
+
+    long countAll();
+
     MemberDto findById(Long id);
 
     void deleteById(Long id);
@@ -22,5 +28,11 @@ public interface MemberService {
 
     MemberDto returnBook(CreateBookRequestDto requestDto, Long id);
 
+    List<BookBatchItemResultDto> borrowBooks(List<CreateBookRequestDto> requestDtos, Long id);
+
+    List<BookBatchItemResultDto> returnBooks(List<CreateBookRequestDto> requestDtos, Long id);
+
     List<BookDto> getAllBooksByMemberName(Pageable pageable, String name);
+
+    long countBooksByMemberName(String name);
 }
@@ -0,0 +1,25 @@
+package org.test_task.service;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.reservation.ReservationDto;
+import java.util.List;
+
+public interface ReservationService {
+    ReservationDto reserve(CreateBookRequestDto requestDto, Long memberId);
+
+    List<ReservationDto> getReservations(Long memberId, Pageable pageable);
+
+    void cancel(Long memberId, Long reservationId);
+
+    SseEmitter streamAssignments(Long memberId);
+
+    /**
+     * Lends a returned copy of the book to the member at the head of its reservation queue. Runs in
+     * the transaction of the return.
+     *
+     * @return {@code false} if nobody could take the copy, so it goes back to the shelf
+     */
+    boolean assignCopy(Long bookId);
+}
@@ -0,0 +1,104 @@
+package org.test_task.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.test_task.dto.book.BookAvailabilityDto;
+import org.test_task.dto.book.BookDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
+import org.test_task.repository.BookRepository;
+import org.test_task.service.BookAvailabilityService;
+import org.test_task.service.BookService;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes the number of available copies of a book to clients instead of letting them poll. The
+ * subscribers are kept in memory and hold no thread while they wait. On a
+ * {@link BookAvailabilityChangedEvent} of a book somebody listens to, the book is loaded once and the
+ * result is sent to every stream, while long-polling clients are woken in arrival order, at most as
+ * many as there are available copies.
+ */
+@Service
+@RequiredArgsConstructor
+public class BookAvailabilityServiceImpl implements BookAvailabilityService {
+    private final static String AVAILABILITY_EVENT = "availability";
+    private final static String STREAM_TIMEOUT_PROPERTY = "book.availability.stream-timeout";
+    private final static String WAIT_TIMEOUT_PROPERTY = "book.availability.wait-timeout";
+    private final BookService bookService;
+    private final BookRepository bookRepository;
+    private final BookInventory bookInventory;
+    private final Environment environment;
+    private final TaskExecutor taskExecutor;
+    private final SseSubscriptions streams = new SseSubscriptions();
+    private final Map<Long, Queue<DeferredResult<ResponseEntity<BookAvailabilityDto>>>> waiters
+            = new ConcurrentHashMap<>();
+
+    @Override
+    public SseEmitter streamAvailability(Long id) {
+        BookDto book = bookService.findById(id);
+        SseEmitter emitter = streams.subscribe(id, getTimeout(STREAM_TIMEOUT_PROPERTY));
+        SseSubscriptions.send(emitter, AVAILABILITY_EVENT, new BookAvailabilityDto(id, book.amount()));
+        return emitter;
+    }
+
+    @Override
+    public DeferredResult<ResponseEntity<BookAvailabilityDto>> waitForCopy(Long id) {
+        DeferredResult<ResponseEntity<BookAvailabilityDto>> waiter = new DeferredResult<>(
+                getTimeout(WAIT_TIMEOUT_PROPERTY), ResponseEntity.noContent().build());
+        SseSubscriptions.add(waiters, id, waiter);
+        waiter.onCompletion(() -> SseSubscriptions.remove(waiters, id, waiter));
+        BookDto book;
+        try {
+            book = bookService.findById(id);
+        } catch (EntityNotFoundException e) {
+            SseSubscriptions.remove(waiters, id, waiter);
+            throw e;
+        }
+        if (book.amount() != null && book.amount() > 0) {
+            SseSubscriptions.remove(waiters, id, waiter);
+            waiter.setResult(ResponseEntity.ok(new BookAvailabilityDto(id, book.amount())));
+        }
+        return waiter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAvailabilityChanged(BookAvailabilityChangedEvent event) {
+        if (streams.hasSubscribers(event.bookId()) || waiters.containsKey(event.bookId())) {
+            taskExecutor.execute(() -> notifySubscribers(event.bookId()));
+        }
+    }
+
+    private void notifySubscribers(Long id) {
+        Optional<BookDto> book = bookRepository.findBookDtoById(id)
+                .map(bookDto -> bookInventory.withSlotAmount(id, bookDto));
+        if (book.isEmpty()) {
+            return;
+        }
+        BookAvailabilityDto availability = new BookAvailabilityDto(id, book.get().amount());
+        streams.send(id, AVAILABILITY_EVENT, availability);
+        int copies = availability.amount() == null ? 0 : availability.amount();
+        Queue<DeferredResult<ResponseEntity<BookAvailabilityDto>>> queue = waiters.get(id);
+        DeferredResult<ResponseEntity<BookAvailabilityDto>> waiter;
+        while (copies > 0 && queue != null && (waiter = queue.poll()) != null) {
+            if (waiter.setResult(ResponseEntity.ok(availability))) {
+                copies--;
+            }
+        }
+        waiters.computeIfPresent(id, (key, subscribers) -> subscribers.isEmpty() ? null : subscribers);
+    }
+
+    private long getTimeout(String property) {
+        return environment.getRequiredProperty(property, Duration.class).toMillis();
+    }
+}
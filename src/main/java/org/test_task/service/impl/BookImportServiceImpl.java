@@ -0,0 +1,182 @@
+package org.test_task.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Service;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookImportFormat;
+import org.test_task.dto.book.BookImportResultDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
+import org.test_task.exception.DataProcessingException;
+import org.test_task.repository.BookRepository;
+import org.test_task.search.BookSearchIndex;
+import org.test_task.service.BookImportService;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BookImportServiceImpl implements BookImportService {
+    private final static String CAN_NOT_READ_INPUT_MESSAGE = "Can't read the imported books.";
+    private final static String MALFORMED_JSON_MESSAGE = "malformed JSON";
+    private final static String MALFORMED_CSV_MESSAGE = "expected exactly two columns: title and author";
+    private final static String CSV_HEADER = "title,author";
+    private final static String PROPERTY_NAME = "book.import.chunk-size";
+    private final static int MAX_REPORTED_REJECTIONS = 100;
+    private final BookRepository bookRepository;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final Environment environment;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCache bookCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public BookImportResultDto importBooks(InputStream inputStream, BookImportFormat format, Charset charset) {
+        int chunkSize = Integer.parseInt(environment.getProperty(PROPERTY_NAME));
+        long startTime = System.nanoTime();
+        ImportProgress progress = new ImportProgress();
+        Map<CreateBookRequestDto, Integer> chunk = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(inputStream, charset))) {
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || isCsvHeader(format, lineNumber, line)) {
+                    continue;
+                }
+                progress.totalRows++;
+                CreateBookRequestDto requestDto = parse(format, line, lineNumber, progress);
+                if (requestDto == null) {
+                    continue;
+                }
+                progress.importedRows++;
+                chunk.merge(requestDto, 1, Integer::sum);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, progress);
+                }
+            }
+        } catch (IOException e) {
+            throw new DataProcessingException(CAN_NOT_READ_INPUT_MESSAGE, e);
+        }
+        writeChunk(chunk, progress);
+        long durationNanos = System.nanoTime() - startTime;
+        return new BookImportResultDto(
+                progress.totalRows,
+                progress.importedRows,
+                progress.rejectedRows,
+                progress.importedBooks,
+                progress.rejectedLines,
+                durationNanos / 1_000_000,
+                durationNanos == 0 ? 0 : progress.totalRows * 1_000_000_000.0 / durationNanos
+        );
+    }
+
+    private void writeChunk(Map<CreateBookRequestDto, Integer> chunk, ImportProgress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        bookRepository.addCopies(chunk);
+        List<String> lookupKeys = chunk.keySet().stream().map(CreateBookRequestDto::lookupKey).toList();
+        bookRepository.findAllByLookupKeyIn(lookupKeys).forEach(book -> {
+            bookSearchIndex.put(book.getId(), book.getTitle(), book.getAuthor());
+            bookCache.evictBook(book.getId());
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId()));
+        });
+        progress.importedBooks += chunk.size();
+        chunk.clear();
+    }
+
+    private CreateBookRequestDto parse(BookImportFormat format, String line,
+                                       long lineNumber, ImportProgress progress) {
+        CreateBookRequestDto requestDto;
+        if (format == BookImportFormat.NDJSON) {
+            try {
+                requestDto = objectMapper.readValue(line, CreateBookRequestDto.class);
+            } catch (JsonProcessingException e) {
+                progress.reject(lineNumber, MALFORMED_JSON_MESSAGE);
+                return null;
+            }
+        } else {
+            List<String> fields = parseCsvLine(line);
+            if (fields.size() != 2) {
+                progress.reject(lineNumber, MALFORMED_CSV_MESSAGE);
+                return null;
+            }
+            requestDto = new CreateBookRequestDto(fields.get(0), fields.get(1));
+        }
+        Set<ConstraintViolation<CreateBookRequestDto>> violations = validator.validate(requestDto);
+        if (!violations.isEmpty()) {
+            progress.reject(lineNumber, violations.stream()
+                    .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+            return null;
+        }
+        return requestDto;
+    }
+
+    private boolean isCsvHeader(BookImportFormat format, long lineNumber, String line) {
+        return format == BookImportFormat.CSV && lineNumber == 1
+                && line.replace(" ", "").equalsIgnoreCase(CSV_HEADER);
+    }
+
+    private List<String> parseCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char symbol = line.charAt(i);
+            if (quoted) {
+                if (symbol != '"') {
+                    field.append(symbol);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append(symbol);
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (symbol == '"') {
+                quoted = true;
+            } else if (symbol == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(symbol);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static class ImportProgress {
+        private long totalRows;
+        private long importedRows;
+        private long rejectedRows;
+        private long importedBooks;
+        private final List<String> rejectedLines = new ArrayList<>();
+
+        private void reject(long lineNumber, String reason) {
+            rejectedRows++;
+            if (rejectedLines.size() < MAX_REPORTED_REJECTIONS) {
+                rejectedLines.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+}
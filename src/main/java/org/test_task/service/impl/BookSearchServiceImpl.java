@@ -0,0 +1,60 @@
+package org.test_task.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookDto;
+import org.test_task.inventory.BookInventory;
+import org.test_task.mapper.BookMapper;
+import org.test_task.model.Book;
+import org.test_task.repository.BookRepository;
+import org.test_task.search.BookSearchIndex;
+import org.test_task.service.BookSearchService;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class BookSearchServiceImpl implements BookSearchService {
+    private final static int INDEX_BATCH_SIZE = 1000;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookRepository bookRepository;
+    private final BookMapper bookMapper;
+    private final BookCache bookCache;
+    private final BookInventory bookInventory;
+
+    @Override
+    public List<BookDto> search(String query, Pageable pageable) {
+        List<Long> ids = bookSearchIndex.search(query, pageable.getOffset(), pageable.getPageSize());
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, BookDto> books = bookCache.getBooks(ids, missingIds -> bookInventory.withSlotAmounts(
+                bookRepository.findAllById(missingIds).stream()
+                        .collect(Collectors.toMap(Book::getId, bookMapper::toBookDto))));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIndex() {
+        bookSearchIndex.clear();
+        Pageable batch = PageRequest.of(0, INDEX_BATCH_SIZE);
+        List<Book> books;
+        Long lastId = 0L;
+        do {
+            books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(lastId, batch);
+            books.forEach(book -> bookSearchIndex.put(book.getId(), book.getTitle(), book.getAuthor()));
+            lastId = books.isEmpty() ? lastId : books.get(books.size() - 1).getId();
+        } while (books.size() == INDEX_BATCH_SIZE);
+    }
+}
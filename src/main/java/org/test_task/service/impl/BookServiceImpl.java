@@ -1,74 +1,125 @@
 package org.test_task.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.cache.BookCache;
+import org.test_task.cache.TotalCountCache;
+import org.test_task.config.MetricsConfig;
+import org.test_task.dto.Cursor;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.BorrowedBookAmount;
 import org.test_task.dto.book.CreateBookRequestDto;
 import org.test_task.dto.book.ShowBookInfoResponseDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
 import org.test_task.exception.DataProcessingException;
 import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
 import org.test_task.mapper.BookMapper;
 import org.test_task.model.Book;
 import org.test_task.repository.BookRepository;
+import org.test_task.retry.RetryOnConflict;
+import org.test_task.search.BookSearchIndex;
 import org.test_task.service.BookService;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @RequiredArgsConstructor
 public class BookServiceImpl implements BookService {
     private final static String BOOK_NOT_FOUND_MESSAGE = "There is no book with such id. ID: ";
+    private final static String BOOKS_TOTAL_COUNT_KEY = "books";
+    private final static String BORROWED_BOOK_TITLES_TOTAL_COUNT_KEY = "borrowedBookTitles";
     private final static String BOOK_CAN_NOT_BE_DELETED_MESSAGE
             = "Can't delete this book, because some of them are borrowed.";
+    private final static String BOOK_ALREADY_EXISTS_MESSAGE = "There is already a book with such title and author.";
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookCache bookCache;
+    private final BookInventory bookInventory;
+    private final TotalCountCache totalCountCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public BookDto save(CreateBookRequestDto requestDto) {
-        int amount = bookRepository.getBookAmountByTitleAndAuthor(requestDto.title(),
-                requestDto.author()).orElse(0);
-        Book book = bookMapper.toBookModel(requestDto);
-        if (amount != 0) {
-            Long id = bookRepository.getIdByTitleAndAuthor(requestDto.title(), requestDto.author());
-            book.setId(id);
-        }
-        book.setAmount(++amount);
-        return bookMapper.toBookDto(bookRepository.save(book));
+        Book book = bookRepository.addCopy(requestDto.title(), requestDto.author(), requestDto.lookupKey());
+        bookSearchIndex.put(book.getId(), book.getTitle(), book.getAuthor());
+        bookCache.evictBook(book.getId());
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(book.getId()));
+        return bookInventory.withSlotAmount(book.getId(), bookMapper.toBookDto(book));
     }
 
     @Override
     public BookDto findById(Long id) {
-        return bookMapper.toBookDto(bookRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException(BOOK_NOT_FOUND_MESSAGE + id)
-        ));
+        BookDto book = bookCache.getBook(id, key -> bookRepository.findBookDtoById(key)
+                .map(bookDto -> bookInventory.withSlotAmount(key, bookDto))
+                .orElse(null));
+        if (book == null) {
+            throw new EntityNotFoundException(BOOK_NOT_FOUND_MESSAGE + id);
+        }
+        return book;
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public void deleteById(Long id) {
         if (bookRepository.areBookBorrowed(id)) {
             throw new DataProcessingException(BOOK_CAN_NOT_BE_DELETED_MESSAGE);
         }
-        bookRepository.deleteById(id);
+        bookRepository.findById(id).ifPresent(book -> {
+            bookRepository.delete(book);
+            bookSearchIndex.remove(id);
+            bookCache.evictBookAndLookupKey(id, book.getLookupKey());
+        });
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public BookDto updateById(Long id, CreateBookRequestDto requestDto) {
-        if (!bookRepository.existsById(id)) {
-            throw new EntityNotFoundException(BOOK_NOT_FOUND_MESSAGE + id);
+        Book book = bookRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException(BOOK_NOT_FOUND_MESSAGE + id)
+        );
+        String lookupKey = book.getLookupKey();
+        bookMapper.updateBookModel(requestDto, book);
+        Book savedBook;
+        try {
+            savedBook = bookRepository.saveAndFlush(book);
+        } catch (DataIntegrityViolationException e) {
+            throw new DataProcessingException(BOOK_ALREADY_EXISTS_MESSAGE, e);
         }
-        Book book = bookMapper.toBookModel(requestDto);
-        book.setId(id);
-        return bookMapper.toBookDto(bookRepository.save(book));
+        bookSearchIndex.put(savedBook.getId(), savedBook.getTitle(), savedBook.getAuthor());
+        bookCache.evictBookAndLookupKey(id, lookupKey);
+        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(id));
+        return bookInventory.withSlotAmount(id, bookMapper.toBookDto(savedBook));
     }
 
     @Override
     public List<BookDto> getAll(Pageable pageable) {
-        return bookRepository.findAll(pageable).stream()
-                .map(bookMapper::toBookDto)
-                .collect(Collectors.toList());
+        return bookInventory.withSlotAmounts(bookRepository.findAllBookDtos(pageable).getContent());
+    }
+
+    @Override
+    public CursorPage<BookDto> getAll(String after, int limit) {
+        List<Book> books = bookRepository.findAllByIdGreaterThanOrderByIdAsc(
+                Cursor.decodeId(after), PageRequest.of(0, limit));
+        return new CursorPage<>(
+                bookInventory.withSlotAmounts(books.stream().map(bookMapper::toBookDto).toList()),
+                Cursor.next(books, limit, Book::getId));
+    }
+
+    @Override
+    public long countAll() {
+        return totalCountCache.get(BOOKS_TOTAL_COUNT_KEY, bookRepository::count);
     }
 
     @Override
@@ -76,15 +127,35 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findDistinctBorrowedBookTitle(pageable).getContent();
     }
 
+    @Override
+    public CursorPage<String> findDistinctBorrowedBookTitle(String after, int limit) {
+        List<String> titles = bookRepository.findDistinctBorrowedBookTitleAfter(
+                Cursor.decode(after), PageRequest.of(0, limit));
+        return new CursorPage<>(titles, Cursor.next(titles, limit, title -> title));
+    }
+
+    @Override
+    public long countDistinctBorrowedBookTitles() {
+        return totalCountCache.get(BORROWED_BOOK_TITLES_TOTAL_COUNT_KEY,
+                bookRepository::countDistinctBorrowedBookTitles);
+    }
+
     @Override
     public List<ShowBookInfoResponseDto> getDistinctBookTitlesAndAmount(Pageable pageable) {
-        List<Book> books = bookRepository.findAllBorrowedBooks(pageable).getContent();
-        Map<String, Long> bookInfo = books.stream()
-                .collect(Collectors.groupingBy(Book::getTitle, Collectors.counting()));
-        List<ShowBookInfoResponseDto> showBooksInfoList = new ArrayList<>();
-        for (Map.Entry<String, Long> entry : bookInfo.entrySet()) {
-            showBooksInfoList.add(new ShowBookInfoResponseDto(entry.getKey(), entry.getValue().intValue()));
-        }
-        return showBooksInfoList;
+        return toShowBookInfoResponseDtos(bookRepository.countBorrowedBooksByTitle(pageable));
+    }
+
+    @Override
+    public CursorPage<ShowBookInfoResponseDto> getDistinctBookTitlesAndAmount(String after, int limit) {
+        List<BorrowedBookAmount> bookInfo = bookRepository.countBorrowedBooksByTitleAfter(
+                Cursor.decode(after), PageRequest.of(0, limit));
+        return new CursorPage<>(toShowBookInfoResponseDtos(bookInfo),
+                Cursor.next(bookInfo, limit, BorrowedBookAmount::getTitle));
+    }
+
+    private List<ShowBookInfoResponseDto> toShowBookInfoResponseDtos(List<BorrowedBookAmount> bookInfo) {
+        return bookInfo.stream()
+                .map(info -> new ShowBookInfoResponseDto(info.getTitle(), info.getAmount().intValue()))
+                .collect(Collectors.toList());
     }
 }
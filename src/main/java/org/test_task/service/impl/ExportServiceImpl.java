@@ -0,0 +1,133 @@
+package org.test_task.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.dto.ExportFormat;
+import org.test_task.dto.member.MemberBookRow;
+import org.test_task.exception.DataProcessingException;
+import org.test_task.inventory.BookInventory;
+import org.test_task.model.Book;
+import org.test_task.model.Member;
+import org.test_task.repository.BookRepository;
+import org.test_task.repository.MemberRepository;
+import org.test_task.service.ExportService;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes whole tables row by row while the rows are read from a forward-only cursor. Loaded entities
+ * are detached in batches, so memory use doesn't depend on the size of the table.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExportServiceImpl implements ExportService {
+    private final static String CAN_NOT_WRITE_EXPORT_MESSAGE = "Can't write the export.";
+    private final static List<String> BOOK_COLUMNS = List.of("id", "title", "author", "amount");
+    private final static List<String> MEMBER_COLUMNS
+            = List.of("id", "name", "membershipDate", "availableBookAmount");
+    private final static List<String> MEMBER_BOOK_COLUMNS = List.of("id", "memberId", "bookId");
+    private final static int DETACH_BATCH_SIZE = 1000;
+    private final BookRepository bookRepository;
+    private final MemberRepository memberRepository;
+    private final BookInventory bookInventory;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportBooks(ExportFormat format, OutputStream outputStream) {
+        Map<Long, Integer> slotAmounts = bookInventory.slotAmounts();
+        try (Stream<Book> books = bookRepository.streamAll()) {
+            export(books, BOOK_COLUMNS, book -> Arrays.asList(
+                    book.getId(), book.getTitle(), book.getAuthor(), getAmount(book, slotAmounts)
+            ), format, outputStream);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMembers(ExportFormat format, OutputStream outputStream) {
+        try (Stream<Member> members = memberRepository.streamAll()) {
+            export(members, MEMBER_COLUMNS, member -> Arrays.asList(
+                    member.getId(), member.getName(), member.getMembershipDate(), member.getAvailableBookAmount()
+            ), format, outputStream);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportMemberBooks(ExportFormat format, OutputStream outputStream) {
+        try (Stream<MemberBookRow> memberBooks = memberRepository.streamAllMemberBooks()) {
+            export(memberBooks, MEMBER_BOOK_COLUMNS, memberBook -> Arrays.asList(
+                    memberBook.getId(), memberBook.getMemberId(), memberBook.getBookId()
+            ), format, outputStream);
+        }
+    }
+
+    private <T> void export(Stream<T> rows, List<String> columns, Function<T, List<Object>> values,
+                            ExportFormat format, OutputStream outputStream) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try {
+            if (format == ExportFormat.CSV) {
+                writer.write(String.join(",", columns));
+                writer.write('\n');
+            }
+            long rowCount = 0;
+            for (T row : (Iterable<T>) rows::iterator) {
+                writer.write(format == ExportFormat.CSV
+                        ? toCsvLine(values.apply(row))
+                        : toJsonLine(columns, values.apply(row)));
+                writer.write('\n');
+                if (++rowCount % DETACH_BATCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new DataProcessingException(CAN_NOT_WRITE_EXPORT_MESSAGE, e);
+        }
+    }
+
+    private String toJsonLine(List<String> columns, List<Object> values) throws IOException {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columns.size(); i++) {
+            row.put(columns.get(i), values.get(i));
+        }
+        return objectMapper.writeValueAsString(row);
+    }
+
+    private String toCsvLine(List<Object> values) {
+        return values.stream()
+                .map(value -> value == null ? "" : toCsvField(String.valueOf(value)))
+                .collect(Collectors.joining(","));
+    }
+
+    private String toCsvField(String value) {
+        if (value.chars().noneMatch(symbol -> symbol == ',' || symbol == '"' || symbol == '\n' || symbol == '\r')) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static Integer getAmount(Book book, Map<Long, Integer> slotAmounts) {
+        Integer slotAmount = slotAmounts.get(book.getId());
+        if (slotAmount == null) {
+            return book.getAmount();
+        }
+        return book.getAmount() + slotAmount;
+    }
+}
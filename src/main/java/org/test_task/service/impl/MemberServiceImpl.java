@@ -1,27 +1,50 @@
 package org.test_task.service.impl;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.test_task.cache.BookCache;
+import org.test_task.cache.TotalCountCache;
+import org.test_task.config.MetricsConfig;
+import org.test_task.dto.Cursor;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.BookBatchItemResultDto;
 import org.test_task.dto.member.CreateMemberRequestDto;
 import org.test_task.dto.member.MemberDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
 import org.test_task.exception.DataProcessingException;
 import org.test_task.exception.EntityNotFoundException;
-import org.test_task.mapper.BookMapper;
+import org.test_task.inventory.BookInventory;
 import org.test_task.mapper.MemberMapper;
 import org.test_task.model.Book;
+import org.test_task.model.Loan;
 import org.test_task.model.Member;
 import org.test_task.repository.BookRepository;
+import org.test_task.repository.LoanRepository;
 import org.test_task.repository.MemberRepository;
+import org.test_task.retry.RetryOnConflict;
 import org.test_task.service.MemberService;
+import org.test_task.service.ReservationService;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
+@Timed(MetricsConfig.SERVICE_TIMER)
 @AllArgsConstructor
 public class MemberServiceImpl implements MemberService {
     private final static String CAN_NOT_DELETE_USER_MESSAGE
@@ -32,12 +55,20 @@ public class MemberServiceImpl implements MemberService {
     private final static String NOT_AVAILABLE_BOOK_MESSAGE = "The book is not available now.";
     private final static String BOOK_CAN_NOT_BE_BORROWED_MESSAGE = "The user is not allowed to borrow one more book.";
     private final static String USER_DOES_NOT_HAVE_BOOK_MESSAGE = "The user doesn't have this book";
+    private final static String DUPLICATE_BOOK_MESSAGE = "The book is already requested in this batch.";
     private final static String PROPERTY_NAME = "book.amount";
+    private final static String MEMBERS_TOTAL_COUNT_KEY = "members";
+    private final static String MEMBER_BOOKS_TOTAL_COUNT_KEY = "memberBooks:";
     private MemberRepository memberRepository;
     private MemberMapper memberMapper;
     private BookRepository bookRepository;
-    private BookMapper bookMapper;
+    private BookInventory bookInventory;
+    private LoanRepository loanRepository;
     private Environment environment;
+    private BookCache bookCache;
+    private TotalCountCache totalCountCache;
+    private ApplicationEventPublisher eventPublisher;
+    private ReservationService reservationService;
 
     @Override
     public MemberDto save(CreateMemberRequestDto requestDto) {
@@ -49,84 +80,225 @@ public class MemberServiceImpl implements MemberService {
 
     @Override
     public List<MemberDto> getAll(Pageable pageable) {
-        return memberRepository.findAll(pageable).stream()
-                .map(memberMapper::toMemberDto)
-                .collect(Collectors.toList());
+        return memberRepository.findAllMemberDtos(pageable).getContent();
+    }
+
+    @Override
+    public CursorPage<MemberDto> getAll(String after, int limit) {
+        List<Member> members = memberRepository.findAllByIdGreaterThanOrderByIdAsc(
+                Cursor.decodeId(after), PageRequest.of(0, limit));
+        return new CursorPage<>(
+                members.stream().map(memberMapper::toMemberDto).collect(Collectors.toList()),
+                Cursor.next(members, limit, Member::getId));
+    }
+
+    @Override
+    public long countAll() {
+        return totalCountCache.get(MEMBERS_TOTAL_COUNT_KEY, memberRepository::count);
     }
 
     @Override
     public MemberDto findById(Long id) {
-        return memberMapper.toMemberDto(getMember(id));
+        return memberRepository.findMemberDtoById(id).orElseThrow(
+                () -> new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE)
+        );
     }
 
     @Override
+    @RetryOnConflict
     public void deleteById(Long id) {
-        if (getMember(id).getBooks().size() != 0) {
+        checkMemberExists(id);
+        if (loanRepository.existsByMemberId(id)) {
             throw new DataProcessingException(CAN_NOT_DELETE_USER_MESSAGE);
         }
         memberRepository.deleteById(id);
     }
 
     @Override
+    @Transactional
+    @RetryOnConflict
     public MemberDto updateById(Long id, CreateMemberRequestDto requestDto) {
-        if (!memberRepository.existsById(id)) {
-            throw new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE + id);
-        }
-        Member member = memberMapper.toMemberModel(requestDto);
-        member.setId(id);
+        Member member = memberRepository.findById(id).orElseThrow(
+                () -> new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE + id)
+        );
+        memberMapper.updateMemberModel(requestDto, member);
         return memberMapper.toMemberDto(memberRepository.save(member));
     }
 
     @Override
+    @Transactional
     public MemberDto borrowBook(CreateBookRequestDto requestDto, Long id) {
-        Member member = getMember(id);
-        if (member.getAvailableBookAmount() == 0) {
+        if (memberRepository.decrementAvailableBookAmount(id) == 0) {
+            checkMemberExists(id);
             throw new DataProcessingException(BOOK_CAN_NOT_BE_BORROWED_MESSAGE);
         }
-        Book book = getBook(requestDto);
-        if(book.getAmount() == 0) {
+        Long bookId = getBookId(requestDto);
+        if (!bookInventory.take(bookId)) {
             throw new DataProcessingException(NOT_AVAILABLE_BOOK_MESSAGE);
         }
-        List<Book> books = member.getBooks();
-        books.add(book);
-        book.setAmount(book.getAmount() - 1);
-        bookRepository.save(book);
-        member.setBooks(books);
-        member.setAvailableBookAmount(member.getAvailableBookAmount() - 1);
-        return memberMapper.toMemberDto(memberRepository.save(member));
+        bookCache.evictBook(bookId);
+        Loan loan = new Loan();
+        loan.setMember(memberRepository.getReferenceById(id));
+        loan.setBook(bookRepository.getReferenceById(bookId));
+        loan.setBorrowedAt(LocalDateTime.now());
+        loanRepository.save(loan);
+        return findById(id);
     }
 
     @Override
+    @Transactional
     public MemberDto returnBook(CreateBookRequestDto requestDto, Long id) {
-        Member member = getMember(id);
-        List<Book> books = member.getBooks();
-        Book book = getBook(requestDto);
-        if (!books.remove(book)) {
+        Long bookId = getBookId(requestDto);
+        if (loanRepository.deleteOldestLoan(id, bookId) == 0) {
+            checkMemberExists(id);
             throw new EntityNotFoundException(USER_DOES_NOT_HAVE_BOOK_MESSAGE);
         }
-        book.setAmount(book.getAmount() + 1);
-        bookRepository.save(book);
-        member.setBooks(books);
-        member.setAvailableBookAmount(member.getAvailableBookAmount() + 1);
-        return memberMapper.toMemberDto(memberRepository.save(member));
+        memberRepository.incrementAvailableBookAmount(id);
+        if (!reservationService.assignCopy(bookId)) {
+            bookInventory.put(bookId);
+            bookCache.evictBook(bookId);
+            eventPublisher.publishEvent(new BookAvailabilityChangedEvent(bookId));
+        }
+        return findById(id);
+    }
+
+    @Override
+    @Transactional
+    public List<BookBatchItemResultDto> borrowBooks(List<CreateBookRequestDto> requestDtos, Long id) {
+        int availableBookAmount = findById(id).availableBookAmount();
+        List<Long> bookIds = getBookIds(requestDtos);
+        BookBatchItemResultDto[] results = new BookBatchItemResultDto[requestDtos.size()];
+        Set<Long> requestedBookIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            CreateBookRequestDto requestDto = requestDtos.get(i);
+            if (bookIds.get(i) == null) {
+                results[i] = failed(requestDto, NO_BOOK_WITH_SUCH_INFO);
+            } else if (!requestedBookIds.add(bookIds.get(i))) {
+                results[i] = failed(requestDto, DUPLICATE_BOOK_MESSAGE);
+            } else if (candidates.size() == availableBookAmount) {
+                results[i] = failed(requestDto, BOOK_CAN_NOT_BE_BORROWED_MESSAGE);
+            } else {
+                candidates.add(i);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Arrays.asList(results);
+        }
+        if (memberRepository.decreaseAvailableBookAmount(id, candidates.size()) == 0) {
+            throw new DataProcessingException(BOOK_CAN_NOT_BE_BORROWED_MESSAGE);
+        }
+        candidates.sort(Comparator.comparing(bookIds::get));
+        int[] updateCounts = bookInventory.take(candidates.stream()
+                .map(bookIds::get)
+                .toList());
+        List<Long> borrowedBookIds = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            CreateBookRequestDto requestDto = requestDtos.get(candidates.get(i));
+            if (updateCounts[i] > 0) {
+                borrowedBookIds.add(bookIds.get(candidates.get(i)));
+                results[candidates.get(i)] = succeeded(requestDto);
+            } else {
+                results[candidates.get(i)] = failed(requestDto, NOT_AVAILABLE_BOOK_MESSAGE);
+            }
+        }
+        if (borrowedBookIds.size() < candidates.size()) {
+            memberRepository.increaseAvailableBookAmount(id, candidates.size() - borrowedBookIds.size());
+        }
+        if (!borrowedBookIds.isEmpty()) {
+            borrowedBookIds.forEach(bookCache::evictBook);
+            memberRepository.addBorrowedBooks(id, borrowedBookIds);
+        }
+        return Arrays.asList(results);
+    }
+
+    @Override
+    @Transactional
+    public List<BookBatchItemResultDto> returnBooks(List<CreateBookRequestDto> requestDtos, Long id) {
+        checkMemberExists(id);
+        List<Long> bookIds = getBookIds(requestDtos);
+        BookBatchItemResultDto[] results = new BookBatchItemResultDto[requestDtos.size()];
+        Set<Long> requestedBookIds = new HashSet<>();
+        List<Integer> candidates = new ArrayList<>();
+        for (int i = 0; i < requestDtos.size(); i++) {
+            CreateBookRequestDto requestDto = requestDtos.get(i);
+            if (bookIds.get(i) == null) {
+                results[i] = failed(requestDto, NO_BOOK_WITH_SUCH_INFO);
+            } else if (!requestedBookIds.add(bookIds.get(i))) {
+                results[i] = failed(requestDto, DUPLICATE_BOOK_MESSAGE);
+            } else {
+                candidates.add(i);
+            }
+        }
+        candidates.sort(Comparator.comparing(bookIds::get));
+        int[] deleteCounts = memberRepository.removeBorrowedBooks(id, candidates.stream()
+                .map(bookIds::get)
+                .toList());
+        List<Long> returnedBookIds = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            CreateBookRequestDto requestDto = requestDtos.get(candidates.get(i));
+            if (deleteCounts[i] > 0) {
+                returnedBookIds.add(bookIds.get(candidates.get(i)));
+                results[candidates.get(i)] = succeeded(requestDto);
+            } else {
+                results[candidates.get(i)] = failed(requestDto, USER_DOES_NOT_HAVE_BOOK_MESSAGE);
+            }
+        }
+        if (!returnedBookIds.isEmpty()) {
+            memberRepository.increaseAvailableBookAmount(id, returnedBookIds.size());
+            List<Long> shelvedBookIds = returnedBookIds.stream()
+                    .filter(bookId -> !reservationService.assignCopy(bookId))
+                    .toList();
+            if (!shelvedBookIds.isEmpty()) {
+                bookInventory.put(shelvedBookIds);
+                shelvedBookIds.forEach(bookCache::evictBook);
+                shelvedBookIds.forEach(bookId ->
+                        eventPublisher.publishEvent(new BookAvailabilityChangedEvent(bookId)));
+            }
+        }
+        return Arrays.asList(results);
     }
 
     @Override
     public List<BookDto> getAllBooksByMemberName(Pageable pageable, String name) {
-        return memberRepository.findAllBooksByMemberName(name, pageable)
-                .getContent().stream()
-                .map(bookMapper::toBookDto)
-                .collect(Collectors.toList());
+        return bookInventory.withSlotAmounts(
+                memberRepository.findAllBookDtosByMemberName(name, pageable).getContent());
     }
 
-    private Member getMember(Long id) {
-        return memberRepository.findById(id).orElseThrow(
-                () -> new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE)
-        );
+    @Override
+    public long countBooksByMemberName(String name) {
+        return totalCountCache.get(MEMBER_BOOKS_TOTAL_COUNT_KEY + name,
+                () -> memberRepository.countBooksByMemberName(name));
     }
 
-    private Book getBook(CreateBookRequestDto requestDto) {
-        return bookRepository.findByAuthorAndTitle(requestDto.title(), requestDto.author())
-                .orElseThrow(() -> new EntityNotFoundException(NO_BOOK_WITH_SUCH_INFO));
+    private void checkMemberExists(Long id) {
+        if (!memberRepository.existsById(id)) {
+            throw new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE + id);
+        }
+    }
+
+    private List<Long> getBookIds(List<CreateBookRequestDto> requestDtos) {
+        List<String> lookupKeys = requestDtos.stream().map(CreateBookRequestDto::lookupKey).toList();
+        Map<String, Long> bookIds = bookCache.getBookIds(lookupKeys,
+                missingKeys -> bookRepository.findAllByLookupKeyIn(missingKeys).stream()
+                        .collect(Collectors.toMap(Book::getLookupKey, Book::getId)));
+        return lookupKeys.stream().map(bookIds::get).toList();
+    }
+
+    private BookBatchItemResultDto succeeded(CreateBookRequestDto requestDto) {
+        return new BookBatchItemResultDto(requestDto.title(), requestDto.author(), true, null);
+    }
+
+    private BookBatchItemResultDto failed(CreateBookRequestDto requestDto, String message) {
+        return new BookBatchItemResultDto(requestDto.title(), requestDto.author(), false, message);
+    }
+
+    private Long getBookId(CreateBookRequestDto requestDto) {
+        Long bookId = bookCache.getBookId(requestDto.lookupKey(),
+                lookupKey -> bookRepository.getIdByLookupKey(lookupKey).orElse(null));
+        if (bookId == null) {
+            throw new EntityNotFoundException(NO_BOOK_WITH_SUCH_INFO);
+        }
+        return bookId;
     }
 }
@@ -0,0 +1,154 @@
+package org.test_task.service.impl;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.reservation.QueuedReservation;
+import org.test_task.dto.reservation.ReservationAssignedDto;
+import org.test_task.dto.reservation.ReservationDto;
+import org.test_task.event.ReservationAssignedEvent;
+import org.test_task.exception.DataProcessingException;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.model.Loan;
+import org.test_task.model.Reservation;
+import org.test_task.repository.BookRepository;
+import org.test_task.repository.LoanRepository;
+import org.test_task.repository.MemberRepository;
+import org.test_task.repository.ReservationRepository;
+import org.test_task.service.BookService;
+import org.test_task.service.ReservationService;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reservation queues of books. A queue is the book's rows of {@code reservations} in id order, so
+ * adding, looking at the head and removing it are single index operations. A returned copy is lent
+ * to the head of the queue in the transaction of the return; the head is claimed by deleting it, so
+ * concurrent returns of one title take consecutive members instead of waiting for each other. A
+ * member who can't borrow one more book when their turn comes loses the reservation. A member holds
+ * at most one reservation of a book, which the unique index on (member_id, book_id) enforces for
+ * concurrent reserves too. Members learn about the loan from {@link #streamAssignments(Long)}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservationServiceImpl implements ReservationService {
+    private final static String MEMBER_NOT_FOUND_MESSAGE = "There is no member with such id. ID: ";
+    private final static String NO_BOOK_WITH_SUCH_INFO = "There is no book with such title and author";
+    private final static String RESERVATION_NOT_FOUND_MESSAGE = "There is no reservation with such id. ID: ";
+    private final static String BOOK_IS_AVAILABLE_MESSAGE = "The book is available now, it can be borrowed.";
+    private final static String ALREADY_RESERVED_MESSAGE = "The user has already reserved this book.";
+    private final static String ASSIGNED_EVENT = "assigned";
+    private final static String STREAM_TIMEOUT_PROPERTY = "reservation.stream-timeout";
+    private final ReservationRepository reservationRepository;
+    private final MemberRepository memberRepository;
+    private final BookRepository bookRepository;
+    private final LoanRepository loanRepository;
+    private final BookService bookService;
+    private final BookCache bookCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Environment environment;
+    private final TaskExecutor taskExecutor;
+    private final SseSubscriptions streams = new SseSubscriptions();
+
+    @Override
+    @Transactional
+    public ReservationDto reserve(CreateBookRequestDto requestDto, Long memberId) {
+        checkMemberExists(memberId);
+        Long bookId = getBookId(requestDto);
+        BookDto book = bookService.findById(bookId);
+        if (book.amount() != null && book.amount() > 0) {
+            throw new DataProcessingException(BOOK_IS_AVAILABLE_MESSAGE);
+        }
+        Reservation reservation = new Reservation();
+        reservation.setMember(memberRepository.getReferenceById(memberId));
+        reservation.setBook(bookRepository.getReferenceById(bookId));
+        reservation.setCreatedAt(LocalDateTime.now());
+        Reservation savedReservation;
+        try {
+            savedReservation = reservationRepository.save(reservation);
+        } catch (DataIntegrityViolationException e) {
+            throw new DataProcessingException(ALREADY_RESERVED_MESSAGE, e);
+        }
+        return new ReservationDto(savedReservation.getId(), book.title(), book.author(),
+                savedReservation.getCreatedAt());
+    }
+
+    @Override
+    public List<ReservationDto> getReservations(Long memberId, Pageable pageable) {
+        return reservationRepository.findAllReservationDtosByMemberId(memberId, pageable).getContent();
+    }
+
+    @Override
+    @Transactional
+    public void cancel(Long memberId, Long reservationId) {
+        if (reservationRepository.cancel(reservationId, memberId) == 0) {
+            throw new EntityNotFoundException(RESERVATION_NOT_FOUND_MESSAGE + reservationId);
+        }
+    }
+
+    @Override
+    public SseEmitter streamAssignments(Long memberId) {
+        checkMemberExists(memberId);
+        return streams.subscribe(memberId,
+                environment.getRequiredProperty(STREAM_TIMEOUT_PROPERTY, Duration.class).toMillis());
+    }
+
+    @Override
+    public boolean assignCopy(Long bookId) {
+        Optional<QueuedReservation> head;
+        while ((head = reservationRepository.findQueueHead(bookId)).isPresent()) {
+            QueuedReservation reservation = head.get();
+            if (reservationRepository.dequeue(reservation.getId()) == 0
+                    || memberRepository.decrementAvailableBookAmount(reservation.getMemberId()) == 0) {
+                continue;
+            }
+            Loan loan = new Loan();
+            loan.setMember(memberRepository.getReferenceById(reservation.getMemberId()));
+            loan.setBook(bookRepository.getReferenceById(bookId));
+            loan.setBorrowedAt(LocalDateTime.now());
+            loanRepository.save(loan);
+            eventPublisher.publishEvent(
+                    new ReservationAssignedEvent(reservation.getId(), reservation.getMemberId(), bookId));
+            return true;
+        }
+        return false;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationAssigned(ReservationAssignedEvent event) {
+        if (streams.hasSubscribers(event.memberId())) {
+            taskExecutor.execute(() -> {
+                BookDto book = bookService.findById(event.bookId());
+                streams.send(event.memberId(), ASSIGNED_EVENT,
+                        new ReservationAssignedDto(event.reservationId(), book.title(), book.author()));
+            });
+        }
+    }
+
+    private void checkMemberExists(Long id) {
+        if (!memberRepository.existsById(id)) {
+            throw new EntityNotFoundException(MEMBER_NOT_FOUND_MESSAGE + id);
+        }
+    }
+
+    private Long getBookId(CreateBookRequestDto requestDto) {
+        Long bookId = bookCache.getBookId(requestDto.lookupKey(),
+                lookupKey -> bookRepository.getIdByLookupKey(lookupKey).orElse(null));
+        if (bookId == null) {
+            throw new EntityNotFoundException(NO_BOOK_WITH_SUCH_INFO);
+        }
+        return bookId;
+    }
+}
@@ -0,0 +1,59 @@
+package org.test_task.service.impl;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Server-Sent Events streams grouped by an id, e.g. of a book or a member. A stream leaves its group
+ * when it completes, times out or fails, and a group without streams is dropped. The static helpers
+ * group other subscribers, e.g. long-polling requests, the same way.
+ */
+final class SseSubscriptions {
+    private final Map<Long, Queue<SseEmitter>> streams = new ConcurrentHashMap<>();
+
+    SseEmitter subscribe(Long id, long timeoutMillis) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        add(streams, id, emitter);
+        emitter.onCompletion(() -> remove(streams, id, emitter));
+        emitter.onTimeout(() -> remove(streams, id, emitter));
+        emitter.onError(e -> remove(streams, id, emitter));
+        return emitter;
+    }
+
+    boolean hasSubscribers(Long id) {
+        return streams.containsKey(id);
+    }
+
+    void send(Long id, String name, Object data) {
+        Optional.ofNullable(streams.get(id))
+                .ifPresent(emitters -> emitters.forEach(emitter -> send(emitter, name, data)));
+    }
+
+    static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    static <T> void add(Map<Long, Queue<T>> subscribers, Long id, T subscriber) {
+        subscribers.compute(id, (key, queue) -> {
+            Queue<T> result = queue == null ? new ConcurrentLinkedQueue<>() : queue;
+            result.add(subscriber);
+            return result;
+        });
+    }
+
+    static <T> void remove(Map<Long, Queue<T>> subscribers, Long id, T subscriber) {
+        subscribers.computeIfPresent(id, (key, queue) -> {
+            queue.remove(subscriber);
+            return queue.isEmpty() ? null : queue;
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package org.test_task.sql;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+
+/**
+ * Bounds the number of connections taken from a data source at the same time. A thread asking for
+ * one more waits for a permit in a fair queue and parks there, which costs a virtual thread
+ * nothing, instead of thousands of requests crowding the connection pool at once. A thread which
+ * doesn't get a permit in time fails like a pool timeout. The permit is given back when the
+ * connection is closed.
+ */
+public final class ConnectionLimiter implements MeterBinder {
+    public final static String PERMITS_METRIC = "library.db.permits";
+    private final static String TIMEOUT_MESSAGE = "No database connection permit became free in ";
+    private final Semaphore permits;
+    private final Duration maxWait;
+
+    public ConnectionLimiter(int permits, Duration maxWait) {
+        this.permits = new Semaphore(permits, true);
+        this.maxWait = maxWait;
+    }
+
+    public DataSource limit(DataSource target) {
+        return proxy(DataSource.class, target, (method, args) -> {
+            if (!"getConnection".equals(method.getName())) {
+                return invoke(target, method, args);
+            }
+            acquire();
+            try {
+                return connection((Connection) invoke(target, method, args));
+            } catch (Throwable e) {
+                permits.release();
+                throw e;
+            }
+        });
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder(PERMITS_METRIC, permits, Semaphore::availablePermits)
+                .tag("state", "available")
+                .register(registry);
+        Gauge.builder(PERMITS_METRIC, permits, Semaphore::getQueueLength)
+                .tag("state", "waiting")
+                .register(registry);
+    }
+
+    private void acquire() throws SQLTransientConnectionException {
+        try {
+            if (!permits.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new SQLTransientConnectionException(TIMEOUT_MESSAGE + maxWait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException(TIMEOUT_MESSAGE + maxWait, e);
+        }
+    }
+
+    private Connection connection(Connection target) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return proxy(Connection.class, target, (method, args) -> {
+            if (!"close".equals(method.getName())) {
+                return invoke(target, method, args);
+            }
+            try {
+                return invoke(target, method, args);
+            } finally {
+                if (closed.compareAndSet(false, true)) {
+                    permits.release();
+                }
+            }
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Interceptor interceptor) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> interceptor.invoke(method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+}
@@ -0,0 +1,108 @@
+package org.test_task.sql;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Set;
+import javax.sql.DataSource;
+
+/**
+ * JDK proxies over the JDBC objects of a data source which record every executed statement, its
+ * time and its rows in the {@link StatementStatistics} of the calling thread. A batch is one
+ * statement, as it is one round trip. Proxies compare by identity, so pools and Hibernate can keep
+ * them in hash-based collections.
+ */
+public final class StatementCountingProxies {
+    private static final Set<String> EXECUTE_METHODS = Set.of("execute", "executeQuery", "executeUpdate",
+            "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private StatementCountingProxies() {
+    }
+
+    public static DataSource dataSource(DataSource target) {
+        return proxy(DataSource.class, target, (method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Connection connection ? connection(connection) : result;
+        });
+    }
+
+    private static Connection connection(Connection target) {
+        return proxy(Connection.class, target, (method, args) -> {
+            Object result = invoke(target, method, args);
+            return result instanceof Statement statement
+                    ? statement(method.getReturnType().asSubclass(Statement.class), statement)
+                    : result;
+        });
+    }
+
+    private static <T extends Statement> T statement(Class<T> type, Statement target) {
+        return proxy(type, target, (method, args) -> {
+            StatementStatistics statistics = StatementStatistics.current();
+            if (statistics == null) {
+                return invoke(target, method, args);
+            }
+            if (!EXECUTE_METHODS.contains(method.getName())) {
+                return countRows(invoke(target, method, args), statistics);
+            }
+            long start = System.nanoTime();
+            try {
+                return countRows(invoke(target, method, args), statistics);
+            } finally {
+                statistics.recordStatement(System.nanoTime() - start);
+            }
+        });
+    }
+
+    private static Object countRows(Object result, StatementStatistics statistics) {
+        if (result instanceof ResultSet resultSet) {
+            return resultSet(resultSet, statistics);
+        }
+        if (result instanceof Integer count && count > 0) {
+            statistics.recordRows(count);
+        } else if (result instanceof Long count && count > 0) {
+            statistics.recordRows(count);
+        } else if (result instanceof int[] counts) {
+            statistics.recordRows(Arrays.stream(counts).filter(count -> count > 0).sum());
+        } else if (result instanceof long[] counts) {
+            statistics.recordRows(Arrays.stream(counts).filter(count -> count > 0).sum());
+        }
+        return result;
+    }
+
+    private static ResultSet resultSet(ResultSet target, StatementStatistics statistics) {
+        return proxy(ResultSet.class, target, (method, args) -> {
+            Object result = invoke(target, method, args);
+            if ("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+                statistics.recordRows(1);
+            }
+            return result;
+        });
+    }
+
+    private static <T> T proxy(Class<T> type, Object target, Interceptor interceptor) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "toString" -> target.toString();
+                    default -> interceptor.invoke(method, args);
+                }));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    @FunctionalInterface
+    private interface Interceptor {
+        Object invoke(Method method, Object[] args) throws Throwable;
+    }
+}
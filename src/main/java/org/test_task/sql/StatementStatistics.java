@@ -0,0 +1,57 @@
+package org.test_task.sql;
+
+/**
+ * Statements, rows and JDBC time of the current HTTP request. The tally is bound to the request
+ * thread by {@link StatementStatisticsFilter}; statements run by other threads, e.g. the tasks of
+ * asynchronous and streaming responses, are not counted.
+ */
+public final class StatementStatistics {
+    private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<>();
+    private int statements;
+    private long rows;
+    private long nanos;
+
+    private StatementStatistics() {
+    }
+
+    public static StatementStatistics start() {
+        StatementStatistics statistics = new StatementStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static void stop() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Returns the tally of the current thread or {@code null} if nothing is counted.
+     */
+    static StatementStatistics current() {
+        return CURRENT.get();
+    }
+
+    void recordStatement(long elapsedNanos) {
+        statements++;
+        nanos += elapsedNanos;
+    }
+
+    void recordRows(long count) {
+        rows += count;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Rows read from result sets plus rows changed by updates.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+}
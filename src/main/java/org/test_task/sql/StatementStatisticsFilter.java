@@ -0,0 +1,85 @@
+package org.test_task.sql;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+
+/**
+ * Counts the statements of every request and returns the tally in the {@value #STATEMENTS_HEADER},
+ * {@value #ROWS_HEADER} and {@value #TIME_HEADER} headers. The headers are written just before the
+ * body, so statements run while the body is streamed aren't in them.
+ */
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+    public static final String STATEMENTS_HEADER = "X-Sql-Statements";
+    public static final String ROWS_HEADER = "X-Sql-Rows";
+    public static final String TIME_HEADER = "X-Sql-Time-Ms";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        StatisticsResponse statisticsResponse = new StatisticsResponse(response, StatementStatistics.start());
+        try {
+            filterChain.doFilter(request, statisticsResponse);
+        } finally {
+            statisticsResponse.writeHeaders();
+            StatementStatistics.stop();
+        }
+    }
+
+    private static class StatisticsResponse extends HttpServletResponseWrapper {
+        private final StatementStatistics statistics;
+        private boolean headersWritten;
+
+        private StatisticsResponse(HttpServletResponse response, StatementStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        private void writeHeaders() {
+            if (headersWritten || isCommitted()) {
+                return;
+            }
+            headersWritten = true;
+            setHeader(STATEMENTS_HEADER, String.valueOf(statistics.getStatements()));
+            setHeader(ROWS_HEADER, String.valueOf(statistics.getRows()));
+            setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f", statistics.getNanos() / 1_000_000.0));
+        }
+    }
+}
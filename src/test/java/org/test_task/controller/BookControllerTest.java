@@ -0,0 +1,62 @@
+package org.test_task.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.test_task.model.BookLookupKey;
+import java.util.Objects;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUpFixture() {
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM member_books");
+        jdbcTemplate.update("DELETE FROM book_inventory_slots");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM members");
+        insertBook(101, "A book", "An Author");
+        insertBook(102, "Another book", "An Author");
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    @Test
+    @DisplayName("Update book by id, invalid case because another book has the same title and author")
+    void updateById_titleAndAuthorOfAnotherBook_unprocessable() throws Exception {
+        mockMvc.perform(put("/books/101").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"Another book\",\"author\":\"An Author\"}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string("There is already a book with such title and author."));
+        mockMvc.perform(get("/books/101"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("A book"));
+    }
+
+    private void insertBook(long id, String title, String author) {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, amount, lookup_key) VALUES (?, ?, ?, 1, ?)",
+                id, title, author, BookLookupKey.of(title, author));
+    }
+}
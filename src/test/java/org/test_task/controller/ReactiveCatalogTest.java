@@ -0,0 +1,111 @@
+package org.test_task.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.test_task.model.BookLookupKey;
+
+/**
+ * Runs the catalog endpoints of the reactive profile against the schema which Liquibase creates
+ * through JDBC; both drivers share one in-memory H2 database.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-catalog;" + ReactiveCatalogTest.H2_OPTIONS,
+        "spring.r2dbc.url=r2dbc:h2:mem:///reactive-catalog?options=" + ReactiveCatalogTest.H2_OPTIONS,
+        "spring.r2dbc.username=sa",
+        "spring.r2dbc.password="
+})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveCatalogTest {
+    static final String H2_OPTIONS = "DB_CLOSE_DELAY=-1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;"
+            + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;DEFAULT_NULL_ORDERING=HIGH";
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUpFixture() {
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM member_books");
+        jdbcTemplate.update("DELETE FROM book_inventory_slots");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM members");
+        insertBook(101, "A book", "An Author", 2);
+        insertBook(102, "Another book", "An Author", 0);
+        insertMember(201, "Alice", 9);
+        insertMember(202, "Bob", 10);
+        jdbcTemplate.update("INSERT INTO member_books (member_id, book_id, borrowed_at)"
+                + " VALUES (201, 101, CURRENT_TIMESTAMP)");
+    }
+
+    @Test
+    @DisplayName("Get a page of books with the total count")
+    public void getAll_withTotal_returnPage() {
+        webTestClient.get().uri("/books?page=1&size=1&withTotal=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "2")
+                .expectBody().json("""
+                        [{"title":"Another book","author":"An Author","amount":0}]""");
+    }
+
+    @Test
+    @DisplayName("Find book by a missing id, not found")
+    public void findById_missingBook_notFound() {
+        webTestClient.get().uri("/books/999")
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody(String.class).isEqualTo("There is no book with such id. ID: 999");
+    }
+
+    @Test
+    @DisplayName("Find book by a negative id, bad request")
+    public void findById_negativeId_badRequest() {
+        webTestClient.get().uri("/books/-1")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.errors[0]").isEqualTo("must be greater than 0");
+    }
+
+    @Test
+    @DisplayName("Get titles and amounts of borrowed books")
+    public void getDistinctBookTitlesAndAmount_validCase_returnInfo() {
+        webTestClient.get().uri("/books/borrowed-books-info")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("""
+                        [{"title":"A book","amount":1}]""");
+    }
+
+    @Test
+    @DisplayName("Find member by id and the books they borrowed")
+    public void findMember_validCase_returnMemberAndBooks() {
+        webTestClient.get().uri("/members/201")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json("""
+                        {"name":"Alice","availableBookAmount":9}""");
+        webTestClient.get().uri("/members/Alice/books?withTotal=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals("X-Total-Count", "1")
+                .expectBody().json("""
+                        [{"title":"A book","author":"An Author"}]""");
+    }
+
+    private void insertBook(long id, String title, String author, int amount) {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, amount, lookup_key) VALUES (?, ?, ?, ?, ?)",
+                id, title, author, amount, BookLookupKey.of(title, author));
+    }
+
+    private void insertMember(long id, String name, int availableBookAmount) {
+        jdbcTemplate.update("INSERT INTO members (id, name, membership_dates, \"available book_amounts\")"
+                + " VALUES (?, ?, CURRENT_DATE, ?)", id, name, availableBookAmount);
+    }
+}
@@ -0,0 +1,193 @@
+package org.test_task.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.test_task.model.BookLookupKey;
+import org.test_task.dto.ExportFormat;
+import org.test_task.search.BookSearchIndex;
+import org.test_task.service.ExportService;
+import org.test_task.sql.StatementStatistics;
+import org.test_task.sql.StatementStatisticsFilter;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the number of SQL statements of every endpoint within a budget, so an N+1 query or an
+ * extra count fails the build instead of creeping in. Every request runs against the same small
+ * fixture with cold caches, the worst case for the number of statements. The budgets are exact:
+ * when a change saves statements, lower the budget with it. The upserts of POST /books and
+ * POST /books/import need PostgreSQL and are checked by {@link UpsertStatementBudgetTest}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class StatementBudgetTest {
+    private static final String BORROWED_BOOK = """
+            {"title":"A book","author":"An Author"}""";
+    private static final String RESERVED_BOOK = """
+            {"title":"Another book","author":"An Author"}""";
+    private static final String MEMBER = """
+            {"name":"Carol"}""";
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+    @Autowired
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUpFixture() {
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM member_books");
+        jdbcTemplate.update("DELETE FROM book_inventory_slots");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM members");
+        insertBook(101, "A book", "An Author", 2);
+        insertBook(102, "Another book", "An Author", 0);
+        insertMember(201, "Alice", 9);
+        insertMember(202, "Bob", 10);
+        jdbcTemplate.update("INSERT INTO member_books (member_id, book_id, borrowed_at)"
+                + " VALUES (201, 101, CURRENT_TIMESTAMP)");
+        jdbcTemplate.update("INSERT INTO reservations (id, member_id, book_id, created_at)"
+                + " VALUES (301, 202, 102, CURRENT_TIMESTAMP)");
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        bookSearchIndex.clear();
+        bookSearchIndex.put(101L, "A book", "An Author");
+        bookSearchIndex.put(102L, "Another book", "An Author");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("routes")
+    void route_staysWithinStatementBudget(String route, int budget, MockHttpServletRequestBuilder request)
+            throws Exception {
+        assertStatements(mockMvc, route, budget, request);
+    }
+
+    /**
+     * The exports stream their rows after the response headers are written, on another thread than
+     * the request, so their statements are counted around the export itself.
+     */
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("exportRoutes")
+    void exportRoute_staysWithinStatementBudget(String route, int budget,
+                                                BiConsumer<ExportService, OutputStream> export) {
+        StatementStatistics statistics = StatementStatistics.start();
+        try {
+            export.accept(exportService, OutputStream.nullOutputStream());
+        } finally {
+            StatementStatistics.stop();
+        }
+        assertThat(statistics.getStatements()).as("statements of " + route).isEqualTo(budget);
+    }
+
+    static Stream<Arguments> routes() {
+        return Stream.of(
+                route("GET /books/{id}", 1, get("/books/101")),
+                route("GET /books/{id}/availability/stream", 1, get("/books/101/availability/stream")),
+                route("GET /books/{id}/availability/wait", 1, get("/books/101/availability/wait")),
+                route("GET /books", 1, get("/books")),
+                route("GET /books?withTotal", 2, get("/books").param("withTotal", "true")),
+                route("GET /books?limit", 1, get("/books").param("limit", "10")),
+                route("GET /books/search", 1, get("/books/search").param("q", "book")),
+                route("DELETE /books/{id}", 3, delete("/books/102")),
+                route("PUT /books/{id}", 2, put("/books/101").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"A new book\",\"author\":\"An Author\"}")),
+                route("GET /books/borrowed-books-titles", 1, get("/books/borrowed-books-titles")),
+                route("GET /books/borrowed-books-titles?limit", 1,
+                        get("/books/borrowed-books-titles").param("limit", "10")),
+                route("GET /books/borrowed-books-info", 1, get("/books/borrowed-books-info")),
+                route("GET /books/borrowed-books-info?limit", 1,
+                        get("/books/borrowed-books-info").param("limit", "10")),
+                route("POST /members", 1, post("/members").contentType(MediaType.APPLICATION_JSON).content(MEMBER)),
+                route("GET /members", 1, get("/members")),
+                route("GET /members?withTotal", 2, get("/members").param("withTotal", "true")),
+                route("GET /members?limit", 1, get("/members").param("limit", "10")),
+                route("GET /members/{id}", 1, get("/members/201")),
+                route("DELETE /members/{id}", 4, delete("/members/202")),
+                route("PUT /members/{id}", 2, put("/members/201").contentType(MediaType.APPLICATION_JSON)
+                        .content(MEMBER)),
+                route("PATCH /members/{id}/borrow", 5, patch("/members/202/borrow")
+                        .contentType(MediaType.APPLICATION_JSON).content(BORROWED_BOOK)),
+                route("PATCH /members/{id}/return", 6, patch("/members/201/return")
+                        .contentType(MediaType.APPLICATION_JSON).content(BORROWED_BOOK)),
+                route("PATCH /members/{id}/borrow-batch", 6, patch("/members/202/borrow-batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[" + BORROWED_BOOK + "," + RESERVED_BOOK + "]")),
+                route("PATCH /members/{id}/return-batch", 6, patch("/members/201/return-batch")
+                        .contentType(MediaType.APPLICATION_JSON).content("[" + BORROWED_BOOK + "]")),
+                route("POST /members/{id}/reservations", 4, post("/members/201/reservations")
+                        .contentType(MediaType.APPLICATION_JSON).content(RESERVED_BOOK)),
+                route("GET /members/{id}/reservations", 1, get("/members/202/reservations")),
+                route("DELETE /members/{id}/reservations/{reservationId}", 1, delete("/members/202/reservations/301")),
+                route("GET /members/{id}/reservations/stream", 1, get("/members/202/reservations/stream")),
+                route("GET /members/{name}/books", 1, get("/members/Alice/books")),
+                route("GET /members/{name}/books?withTotal", 2, get("/members/Alice/books").param("withTotal", "true"))
+        );
+    }
+
+    static Stream<Arguments> exportRoutes() {
+        return Stream.of(
+                exportRoute("GET /books/export", 1,
+                        (service, output) -> service.exportBooks(ExportFormat.NDJSON, output)),
+                exportRoute("GET /members/export", 1,
+                        (service, output) -> service.exportMembers(ExportFormat.NDJSON, output)),
+                exportRoute("GET /members/borrowed-books/export", 1,
+                        (service, output) -> service.exportMemberBooks(ExportFormat.NDJSON, output))
+        );
+    }
+
+    /**
+     * Checks that the request succeeds and that the statements reported by {@link StatementStatisticsFilter}
+     * are exactly the budget.
+     */
+    static void assertStatements(MockMvc mockMvc, String route, int budget, MockHttpServletRequestBuilder request)
+            throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        String statements = result.getResponse().getHeader(StatementStatisticsFilter.STATEMENTS_HEADER);
+        assertThat(result.getResponse().getStatus()).as("status of " + route).isLessThan(400);
+        assertThat(statements).as("statements of " + route).isEqualTo(String.valueOf(budget));
+    }
+
+    private static Arguments route(String route, int budget, MockHttpServletRequestBuilder request) {
+        return Arguments.of(route, budget, request);
+    }
+
+    private static Arguments exportRoute(String route, int budget, BiConsumer<ExportService, OutputStream> export) {
+        return Arguments.of(route, budget, export);
+    }
+
+    private void insertBook(long id, String title, String author, int amount) {
+        jdbcTemplate.update("INSERT INTO books (id, title, author, amount, lookup_key) VALUES (?, ?, ?, ?, ?)",
+                id, title, author, amount, BookLookupKey.of(title, author));
+    }
+
+    private void insertMember(long id, String name, int availableBookAmount) {
+        jdbcTemplate.update("INSERT INTO members (id, name, membership_dates, \"available book_amounts\")"
+                + " VALUES (?, ?, CURRENT_DATE, ?)", id, name, availableBookAmount);
+    }
+}
@@ -0,0 +1,67 @@
+package org.test_task.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.test_task.model.BookLookupKey;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * The statement budgets of POST /books and POST /books/import, see {@link StatementBudgetTest}.
+ * Both upsert with {@code ON CONFLICT DO UPDATE}, which H2 doesn't run, so the test runs only on
+ * PostgreSQL with {@code mvn -Ppostgres test}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles({"test", "postgres"})
+@EnabledIfSystemProperty(named = "postgres.enabled", matches = "true")
+class UpsertStatementBudgetTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    void setUpFixture() {
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM member_books");
+        jdbcTemplate.update("DELETE FROM book_inventory_slots");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("INSERT INTO books (id, title, author, amount, lookup_key) VALUES (101, ?, ?, 2, ?)",
+                "A book", "An Author", BookLookupKey.of("A book", "An Author"));
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("routes")
+    void route_staysWithinStatementBudget(String route, int budget, MockHttpServletRequestBuilder request)
+            throws Exception {
+        StatementBudgetTest.assertStatements(mockMvc, route, budget, request);
+    }
+
+    static Stream<Arguments> routes() {
+        return Stream.of(
+                Arguments.of("POST /books", 1, post("/books").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"A book\",\"author\":\"An Author\"}")),
+                Arguments.of("POST /books/import", 2, post("/books/import")
+                        .contentType(MediaType.parseMediaType("text/csv"))
+                        .content("title,author\nA book,An Author\nA third book,An Author\n"))
+        );
+    }
+}
@@ -0,0 +1,34 @@
+package org.test_task.exception;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+class CustomGlobalExceptionHandlerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomGlobalExceptionHandler exceptionHandler = new CustomGlobalExceptionHandler(meterRegistry);
+
+    @Test
+    @DisplayName("Rejections are counted per reason, the appended id is not a part of the reason")
+    public void handleEntityNotFound_countRejectionWithoutId() {
+        exceptionHandler.handleEntityNotFound(new EntityNotFoundException("There is no book with such id. ID: 1"));
+        exceptionHandler.handleEntityNotFound(new EntityNotFoundException("There is no book with such id. ID: 2"));
+        assertEquals(2, meterRegistry.get(CustomGlobalExceptionHandler.REJECTIONS_METRIC)
+                .tag("exception", "EntityNotFoundException")
+                .tag("reason", "There is no book with such id. ID")
+                .counter().count());
+    }
+
+    @Test
+    @DisplayName("Business rule violation is answered with 422 and counted")
+    public void dataProcessingException_countRejection() {
+        assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, exceptionHandler.dataProcessingException(
+                new DataProcessingException("The book is not available now.")).getStatusCode());
+        assertEquals(1, meterRegistry.get(CustomGlobalExceptionHandler.REJECTIONS_METRIC)
+                .tag("reason", "The book is not available now.")
+                .counter().count());
+    }
+}
@@ -0,0 +1,136 @@
+package org.test_task.inventory;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.test_task.dto.book.BookDto;
+import org.test_task.repository.BookRepository;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@ExtendWith(MockitoExtension.class)
+class BookInventoryTest {
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private Environment environment;
+
+    @Test
+    @DisplayName("Take a copy, not striped, the book row is decremented")
+    public void take_notStriped_decrementBookRow() {
+        BookInventory bookInventory = getBookInventory(1);
+        Mockito.when(bookRepository.decrementAmount(1L)).thenReturn(1);
+        assertTrue(bookInventory.take(1L));
+        Mockito.verify(bookRepository, Mockito.never()).takeFromSlot(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Take a copy, not striped, invalid case because the book row is empty, slots are not queried")
+    public void take_notStriped_emptyBookRow_returnFalse() {
+        BookInventory bookInventory = getBookInventory(1);
+        Mockito.when(bookRepository.decrementAmount(1L)).thenReturn(0);
+        assertFalse(bookInventory.take(1L));
+        Mockito.verify(bookRepository, Mockito.never()).findSlotsWithCopies(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Get copies in slots, not striped, there are none and no query is made")
+    public void slotAmounts_notStriped_noQuery() {
+        BookInventory bookInventory = getBookInventory(1);
+        assertEquals(Map.of(), bookInventory.slotAmounts(List.of(1L, 2L)));
+        assertEquals(0, bookInventory.slotAmount(1L));
+        Mockito.verify(bookRepository, Mockito.never()).sumSlotAmounts(Mockito.anyCollection());
+    }
+
+    @Test
+    @DisplayName("Get copies in slots, striped, the slots are summed")
+    public void slotAmount_striped_sumSlots() {
+        BookInventory bookInventory = getBookInventory(4);
+        Mockito.when(bookRepository.sumSlotAmounts(List.of(1L))).thenReturn(Map.of(1L, 3));
+        assertEquals(3, bookInventory.slotAmount(1L));
+    }
+
+    @Test
+    @DisplayName("Add copies in slots to books by id, striped, books without copies in slots are kept")
+    public void withSlotAmounts_striped_addSlotCopies() {
+        BookInventory bookInventory = getBookInventory(4);
+        Mockito.when(bookRepository.sumSlotAmounts(Set.of(1L, 2L))).thenReturn(Map.of(1L, 3));
+        Map<Long, BookDto> books = Map.of(1L, new BookDto("A book", "An Author", 1),
+                2L, new BookDto("Another book", "An Author", 2));
+        Map<Long, BookDto> expected = Map.of(1L, new BookDto("A book", "An Author", 4),
+                2L, new BookDto("Another book", "An Author", 2));
+        assertEquals(expected, bookInventory.withSlotAmounts(books));
+    }
+
+    @Test
+    @DisplayName("Start up, not striped, copies left in slots are moved back to the book rows")
+    public void collectSlots_notStriped_collect() {
+        getBookInventory(1).collectSlots();
+        getBookInventory(4).collectSlots();
+        Mockito.verify(bookRepository, Mockito.times(1)).collectSlots();
+    }
+
+    @Test
+    @DisplayName("Take a copy, striped, the book row is not touched while a slot has copies")
+    public void take_striped_takeFromSlot() {
+        BookInventory bookInventory = getBookInventory(4);
+        Mockito.when(bookRepository.takeFromSlot(Mockito.eq(1L), Mockito.anyInt())).thenReturn(true);
+        assertTrue(bookInventory.take(1L));
+        Mockito.verify(bookRepository, Mockito.never()).decrementAmount(Mockito.anyLong());
+        Mockito.verify(bookRepository, Mockito.never()).spreadIntoSlots(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Take a copy, striped, copies of the book row are spread when the slots are empty")
+    public void take_striped_emptySlots_spreadBookRow() {
+        BookInventory bookInventory = getBookInventory(4);
+        Mockito.when(bookRepository.takeFromSlot(Mockito.eq(1L), Mockito.anyInt())).thenReturn(false, true);
+        Mockito.when(bookRepository.findSlotsWithCopies(1L)).thenReturn(List.of())
+                .thenReturn(List.of(0, 1));
+        Mockito.when(bookRepository.spreadIntoSlots(1L, 4)).thenReturn(2);
+        assertTrue(bookInventory.take(1L));
+    }
+
+    @Test
+    @DisplayName("Take a copy, striped, invalid case because there are no copies at all")
+    public void take_striped_noCopies_returnFalse() {
+        BookInventory bookInventory = getBookInventory(4);
+        Mockito.when(bookRepository.takeFromSlot(Mockito.eq(1L), Mockito.anyInt())).thenReturn(false);
+        Mockito.when(bookRepository.findSlotsWithCopies(1L)).thenReturn(List.of());
+        Mockito.when(bookRepository.spreadIntoSlots(1L, 4)).thenReturn(0);
+        assertFalse(bookInventory.take(1L));
+    }
+
+    @Test
+    @DisplayName("Take copies of several books, not striped, a batch update is used")
+    public void takeSeveral_notStriped_batchUpdate() {
+        BookInventory bookInventory = getBookInventory(1);
+        Mockito.when(bookRepository.decrementBookAmounts(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+        assertArrayEquals(new int[]{1, 0}, bookInventory.take(List.of(1L, 2L)));
+    }
+
+    @Test
+    @DisplayName("Put a copy back, striped, a slot is refilled")
+    public void put_striped_refillSlot() {
+        BookInventory bookInventory = getBookInventory(4);
+        bookInventory.put(1L);
+        Mockito.verify(bookRepository, Mockito.times(1))
+                .addToSlot(Mockito.eq(1L), Mockito.intThat(slot -> slot >= 0 && slot < 4), Mockito.eq(1));
+        Mockito.verify(bookRepository, Mockito.never()).incrementAmount(Mockito.anyLong());
+    }
+
+    private BookInventory getBookInventory(int slots) {
+        Mockito.when(environment.getRequiredProperty("book.inventory.slots", Integer.class)).thenReturn(slots);
+        return new BookInventory(bookRepository, environment);
+    }
+}
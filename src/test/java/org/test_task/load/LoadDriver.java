@@ -0,0 +1,147 @@
+package org.test_task.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the operations of the mix from concurrent clients, each of them one thread sending a
+ * request after the other. A return gives back a loan from a shared queue which borrows add to, so
+ * returns hit books members really have; when the queue is empty the client borrows instead.
+ */
+class LoadDriver {
+    static final String AUTHOR = "Load Author";
+    private static final int PAGE_SIZE = 20;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    private final URI baseUri;
+    private final LoadSettings settings;
+    private final List<Long> memberIds;
+    private final List<Long> bookIds;
+    private final Queue<Loan> loans;
+    private final Map<Long, LongAdder> createdCopies = new ConcurrentHashMap<>();
+    private final LoadReport report;
+
+    /**
+     * @param bookIds the id of every title, by the number of the title
+     */
+    LoadDriver(URI baseUri, LoadSettings settings, List<Long> memberIds, List<Long> bookIds, List<Loan> loans) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.memberIds = memberIds;
+        this.bookIds = bookIds;
+        this.loans = new ConcurrentLinkedQueue<>(loans);
+        this.report = new LoadReport(settings);
+    }
+
+    static String title(int number) {
+        return "Title " + number;
+    }
+
+    LoadReport run() throws InterruptedException {
+        ExecutorService clients = Executors.newFixedThreadPool(settings.clients());
+        long measuredFrom = System.nanoTime() + settings.warmUp().toNanos();
+        long until = measuredFrom + settings.duration().toNanos();
+        for (int i = 0; i < settings.clients(); i++) {
+            clients.execute(() -> {
+                long now;
+                while ((now = System.nanoTime()) < until && !Thread.currentThread().isInterrupted()) {
+                    send(now >= measuredFrom);
+                }
+            });
+        }
+        clients.shutdown();
+        Duration limit = settings.warmUp().plus(settings.duration()).plus(settings.requestTimeout()).plusSeconds(10);
+        if (!clients.awaitTermination(limit.toMillis(), TimeUnit.MILLISECONDS)) {
+            clients.shutdownNow();
+            throw new IllegalStateException("The load clients didn't stop in " + limit);
+        }
+        return report;
+    }
+
+    /**
+     * The copies of every book added by successful POST /books calls.
+     */
+    Map<Long, Long> createdCopies() {
+        return createdCopies.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().sum()));
+    }
+
+    private void send(boolean measured) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation operation = settings.pick(random.nextInt(settings.totalWeight()));
+        Loan loan = operation == Operation.RETURN ? loans.poll() : null;
+        if (operation == Operation.RETURN && loan == null) {
+            operation = Operation.BORROW;
+        }
+        int title = loan == null ? random.nextInt(bookIds.size()) : loan.title();
+        long memberId = loan == null ? memberIds.get(random.nextInt(memberIds.size())) : loan.memberId();
+        HttpRequest request = request(operation, memberId, title, random);
+        long startedAt = System.nanoTime();
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        long nanos = System.nanoTime() - startedAt;
+        if (status >= 200 && status < 300) {
+            if (operation == Operation.BORROW) {
+                loans.add(new Loan(memberId, title));
+            } else if (operation == Operation.CREATE) {
+                createdCopies.computeIfAbsent(bookIds.get(title), id -> new LongAdder()).increment();
+            }
+        } else if (loan != null && (status < 0 || status >= 500 || status == 409)) {
+            loans.add(loan);
+        }
+        if (measured) {
+            report.record(operation, status, nanos);
+        }
+    }
+
+    private HttpRequest request(Operation operation, long memberId, int title, ThreadLocalRandom random) {
+        String book = "{\"title\":\"" + title(title) + "\",\"author\":\"" + AUTHOR + "\"}";
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .timeout(settings.requestTimeout())
+                .header("Content-Type", "application/json");
+        return switch (operation) {
+            case CREATE -> builder.uri(baseUri.resolve("/books"))
+                    .POST(HttpRequest.BodyPublishers.ofString(book))
+                    .build();
+            case BORROW -> builder.uri(baseUri.resolve("/members/" + memberId + "/borrow"))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(book))
+                    .build();
+            case RETURN -> builder.uri(baseUri.resolve("/members/" + memberId + "/return"))
+                    .method("PATCH", HttpRequest.BodyPublishers.ofString(book))
+                    .build();
+            case LIST -> builder.uri(baseUri.resolve("/books?size=" + PAGE_SIZE + "&page="
+                            + random.nextInt(Math.max(1, bookIds.size() / PAGE_SIZE))))
+                    .GET()
+                    .build();
+        };
+    }
+
+    /**
+     * A copy of the title with the given number borrowed by the member.
+     */
+    record Loan(long memberId, int title) {
+    }
+}
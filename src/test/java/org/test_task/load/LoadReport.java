@@ -0,0 +1,121 @@
+package org.test_task.load;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput, latency and outcomes of the requests sent after the warm-up. A 2xx answer is a
+ * success, a 4xx answer a rejection the service is expected to make under load (no copy left, the
+ * member's limit reached) and a 5xx answer or a failed exchange an error. 409 Conflict counts as an
+ * error as well: it means a write lost its optimistic lock more often than the retries allow.
+ */
+class LoadReport {
+    private static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+    private static final Duration[] BUCKETS = {
+            Duration.ofMillis(1), Duration.ofMillis(2), Duration.ofMillis(5), Duration.ofMillis(10),
+            Duration.ofMillis(20), Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(200),
+            Duration.ofMillis(500), Duration.ofSeconds(1), Duration.ofSeconds(2), Duration.ofSeconds(5)
+    };
+    private final Map<Operation, Timer> timers = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Outcome, LongAdder>> outcomes = new EnumMap<>(Operation.class);
+
+    LoadReport(LoadSettings settings) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Duration run = settings.warmUp().plus(settings.duration()).plus(settings.requestTimeout());
+        for (Operation operation : settings.mix().keySet()) {
+            timers.put(operation, Timer.builder("load.request")
+                    .tag("operation", operation.name())
+                    .publishPercentiles(PERCENTILES)
+                    .serviceLevelObjectives(BUCKETS)
+                    .distributionStatisticExpiry(run)
+                    .distributionStatisticBufferLength(1)
+                    .register(meterRegistry));
+            Map<Outcome, LongAdder> counters = new EnumMap<>(Outcome.class);
+            for (Outcome outcome : Outcome.values()) {
+                counters.put(outcome, new LongAdder());
+            }
+            outcomes.put(operation, counters);
+        }
+    }
+
+    /**
+     * @param status the HTTP status of the answer, or a negative number if there was none
+     */
+    void record(Operation operation, int status, long nanos) {
+        timers.get(operation).record(nanos, TimeUnit.NANOSECONDS);
+        outcomes.get(operation).get(Outcome.of(status)).increment();
+    }
+
+    long count(Outcome outcome) {
+        return outcomes.values().stream().mapToLong(counters -> counters.get(outcome).sum()).sum();
+    }
+
+    double errorRate() {
+        long total = count(Outcome.SUCCESS) + count(Outcome.REJECTION) + count(Outcome.ERROR);
+        return total == 0 ? 0 : (double) count(Outcome.ERROR) / total;
+    }
+
+    void print(PrintStream out, LoadSettings settings, Duration measured, List<String> violations) {
+        double seconds = measured.toNanos() / 1e9;
+        out.printf("%nLoad test: %d clients for %s after a %s warm-up, %d members, %d titles x %d copies,"
+                        + " %d loans per member at start%n", settings.clients(), settings.duration(),
+                settings.warmUp(), settings.members(), settings.titles(), settings.copies(),
+                settings.initialLoans());
+        out.printf("%-28s %9s %9s %9s %9s %9s %9s %9s %9s %9s%n", "operation", "requests", "req/s",
+                "success", "rejected", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        timers.forEach((operation, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            Map<Outcome, LongAdder> counters = outcomes.get(operation);
+            ValueAtPercentile[] percentiles = snapshot.percentileValues();
+            out.printf("%-28s %9d %9.1f %9d %9d %9d %9.1f %9.1f %9.1f %9.1f%n", operation.route(),
+                    snapshot.count(), snapshot.count() / seconds,
+                    counters.get(Outcome.SUCCESS).sum(), counters.get(Outcome.REJECTION).sum(),
+                    counters.get(Outcome.ERROR).sum(),
+                    percentiles[0].value(TimeUnit.MILLISECONDS), percentiles[1].value(TimeUnit.MILLISECONDS),
+                    percentiles[2].value(TimeUnit.MILLISECONDS), snapshot.max(TimeUnit.MILLISECONDS));
+        });
+        long total = count(Outcome.SUCCESS) + count(Outcome.REJECTION) + count(Outcome.ERROR);
+        out.printf("%-28s %9d %9.1f %9d %9d %9d   error rate %.4f%n", "total", total, total / seconds,
+                count(Outcome.SUCCESS), count(Outcome.REJECTION), count(Outcome.ERROR), errorRate());
+        out.printf("%nLatency histogram, requests per bucket%n%-28s", "operation");
+        for (Duration bucket : BUCKETS) {
+            out.printf(" %7s", "<=" + bucket.toMillis());
+        }
+        out.printf(" %7s%n", ">" + BUCKETS[BUCKETS.length - 1].toMillis());
+        timers.forEach((operation, timer) -> {
+            HistogramSnapshot snapshot = timer.takeSnapshot();
+            out.printf("%-28s", operation.route());
+            double below = 0;
+            for (CountAtBucket bucket : snapshot.histogramCounts()) {
+                out.printf(" %7d", (long) (bucket.count() - below));
+                below = bucket.count();
+            }
+            out.printf(" %7d%n", (long) (snapshot.count() - below));
+        });
+        out.printf("%nInvariant violations: %d%n", violations.size());
+        violations.forEach(violation -> out.println("  " + violation));
+    }
+
+    enum Outcome {
+        SUCCESS,
+        REJECTION,
+        ERROR;
+
+        static Outcome of(int status) {
+            if (status >= 200 && status < 300) {
+                return SUCCESS;
+            }
+            return status >= 400 && status < 500 && status != 409 ? REJECTION : ERROR;
+        }
+    }
+}
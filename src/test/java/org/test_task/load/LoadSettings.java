@@ -0,0 +1,67 @@
+package org.test_task.load;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.env.Environment;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The load.* settings of a load test run, see application-load.properties.
+ *
+ * @param mix the weight of every operation, written as {@code create:5,borrow:40,return:40,list:15}
+ */
+record LoadSettings(int members, int titles, int copies, int initialLoans, int clients,
+                    Duration warmUp, Duration duration, Duration requestTimeout,
+                    Map<Operation, Integer> mix, double maxErrorRate) {
+    private final static String INVALID_MIX_MESSAGE = "Invalid load.mix entry: ";
+
+    static LoadSettings from(Environment environment) {
+        return new LoadSettings(
+                environment.getRequiredProperty("load.members", Integer.class),
+                environment.getRequiredProperty("load.titles", Integer.class),
+                environment.getRequiredProperty("load.copies", Integer.class),
+                environment.getRequiredProperty("load.initial-loans", Integer.class),
+                environment.getRequiredProperty("load.clients", Integer.class),
+                DurationStyle.detectAndParse(environment.getRequiredProperty("load.warm-up")),
+                DurationStyle.detectAndParse(environment.getRequiredProperty("load.duration")),
+                DurationStyle.detectAndParse(environment.getRequiredProperty("load.request-timeout")),
+                parseMix(environment.getRequiredProperty("load.mix")),
+                environment.getRequiredProperty("load.max-error-rate", Double.class));
+    }
+
+    int totalWeight() {
+        return mix.values().stream().mapToInt(Integer::intValue).sum();
+    }
+
+    /**
+     * Picks the operation of a roll between zero and {@link #totalWeight()}.
+     */
+    Operation pick(int roll) {
+        for (Map.Entry<Operation, Integer> entry : mix.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalArgumentException("Roll is out of the mix: " + roll);
+    }
+
+    private static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(INVALID_MIX_MESSAGE + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException(INVALID_MIX_MESSAGE + entry);
+            }
+            weights.put(Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        return Collections.unmodifiableMap(weights);
+    }
+}
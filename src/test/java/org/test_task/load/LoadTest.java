@@ -0,0 +1,178 @@
+package org.test_task.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.test_task.model.BookLookupKey;
+import org.test_task.search.BookSearchIndex;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Storms the application with borrows, returns, new copies and list calls from many concurrent
+ * clients over HTTP, then checks that no copy was lost or handed out twice. It seeds the members
+ * and titles itself, by default with every member holding some books already, so a mix of mostly
+ * returns plays a Monday-morning return rush.
+ *
+ * <p>The test runs only with {@code mvn -Pload test}. The load.* settings of
+ * application-load.properties can be overridden on the command line, e.g.
+ * {@code -Dload.clients=64 -Dload.duration=2m -Dload.mix=borrow:20,return:70,list:10}. It runs
+ * against a PostgreSQL container started by Testcontainers, see application-postgres.properties,
+ * unless another PostgreSQL database is passed with
+ * {@code -Dspring.datasource.url=... -Dspring.datasource.driver-class-name=org.postgresql.Driver}
+ * and the username and password; its tables are emptied. POST /books upserts with
+ * {@code ON CONFLICT DO UPDATE}, which H2 doesn't run, so on H2 the test fails unless create is
+ * left out of load.mix.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "postgres", "load"})
+@EnabledIfSystemProperty(named = "load.enabled", matches = "true")
+class LoadTest {
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private Environment environment;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private CacheManager cacheManager;
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
+
+    @Test
+    void borrowReturnStorm_keepsInventoryConsistent() throws InterruptedException {
+        LoadSettings settings = LoadSettings.from(environment);
+        if (!isPostgreSql() && settings.mix().containsKey(Operation.CREATE)) {
+            throw new IllegalStateException("POST /books needs PostgreSQL, run against PostgreSQL"
+                    + " or leave create out of load.mix");
+        }
+        int limit = environment.getRequiredProperty("book.amount", Integer.class);
+        LoadDriver driver = seed(settings, limit);
+        LoadReport report = driver.run();
+        List<String> violations = checkInvariants(settings, driver.createdCopies(), limit);
+        report.print(System.out, settings, settings.duration(), violations);
+        assertThat(violations).as("invariant violations").isEmpty();
+        assertThat(report.errorRate()).as("error rate").isLessThanOrEqualTo(settings.maxErrorRate());
+    }
+
+    private LoadDriver seed(LoadSettings settings, int limit) {
+        if (settings.initialLoans() > limit) {
+            throw new IllegalStateException("load.initial-loans is above the limit of " + limit + " books");
+        }
+        jdbcTemplate.update("DELETE FROM reservations");
+        jdbcTemplate.update("DELETE FROM member_books");
+        jdbcTemplate.update("DELETE FROM book_inventory_slots");
+        jdbcTemplate.update("DELETE FROM books");
+        jdbcTemplate.update("DELETE FROM members");
+        int[] loansPerTitle = new int[settings.titles()];
+        List<LoadDriver.Loan> loans = new ArrayList<>();
+        for (int member = 0; member < settings.members(); member++) {
+            for (int i = 0; i < settings.initialLoans(); i++) {
+                int title = (member * settings.initialLoans() + i) % settings.titles();
+                loansPerTitle[title]++;
+                loans.add(new LoadDriver.Loan(member, title));
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO books (title, author, amount, lookup_key) VALUES (?, ?, ?, ?)",
+                IntStream.range(0, settings.titles()).mapToObj(title -> {
+                    int amount = settings.copies() - loansPerTitle[title];
+                    if (amount < 0) {
+                        throw new IllegalStateException("load.copies are too few for the initial loans");
+                    }
+                    String name = LoadDriver.title(title);
+                    return new Object[]{name, LoadDriver.AUTHOR, amount, BookLookupKey.of(name, LoadDriver.AUTHOR)};
+                }).toList());
+        jdbcTemplate.batchUpdate("INSERT INTO members (name, membership_dates, \"available book_amounts\")"
+                        + " VALUES (?, CURRENT_DATE, ?)",
+                IntStream.range(0, settings.members())
+                        .mapToObj(member -> new Object[]{"Member " + member, limit - settings.initialLoans()})
+                        .toList());
+        List<Long> bookIds = ids("SELECT id, title FROM books", LoadDriver::title, settings.titles());
+        List<Long> memberIds = ids("SELECT id, name FROM members", member -> "Member " + member,
+                settings.members());
+        List<LoadDriver.Loan> memberLoans = loans.stream()
+                .map(loan -> new LoadDriver.Loan(memberIds.get((int) loan.memberId()), loan.title()))
+                .toList();
+        jdbcTemplate.batchUpdate("INSERT INTO member_books (member_id, book_id, borrowed_at)"
+                        + " VALUES (?, ?, CURRENT_TIMESTAMP)",
+                memberLoans.stream().map(loan -> new Object[]{loan.memberId(), bookIds.get(loan.title())}).toList());
+        cacheManager.getCacheNames().forEach(name -> Objects.requireNonNull(cacheManager.getCache(name)).clear());
+        bookSearchIndex.clear();
+        for (int title = 0; title < settings.titles(); title++) {
+            bookSearchIndex.put(bookIds.get(title), LoadDriver.title(title), LoadDriver.AUTHOR);
+        }
+        return new LoadDriver(URI.create("http://localhost:" + port), settings, memberIds, bookIds, memberLoans);
+    }
+
+    /**
+     * Every copy is either on the shelf or on loan: a book never has fewer than zero copies and its
+     * copies add up to the seeded ones plus the created ones. Every member has
+     * {@code availableBookAmount} between zero and the limit, and it adds up to the limit with the
+     * member's loans.
+     */
+    private List<String> checkInvariants(LoadSettings settings, Map<Long, Long> createdCopies, int limit) {
+        List<String> violations = new ArrayList<>();
+        jdbcTemplate.query("SELECT b.id, b.amount,"
+                + " (SELECT COALESCE(SUM(s.amount), 0) FROM book_inventory_slots s WHERE s.book_id = b.id),"
+                + " (SELECT COALESCE(MIN(s.amount), 0) FROM book_inventory_slots s WHERE s.book_id = b.id),"
+                + " (SELECT COUNT(*) FROM member_books mb WHERE mb.book_id = b.id) FROM books b", row -> {
+            long id = row.getLong(1);
+            int rowAmount = row.getInt(2);
+            int slotsAmount = row.getInt(3);
+            int lowestSlot = row.getInt(4);
+            int onLoan = row.getInt(5);
+            long expected = settings.copies() + createdCopies.getOrDefault(id, 0L);
+            if (rowAmount < 0 || lowestSlot < 0) {
+                violations.add("Book %d is oversold: amount %d on the row, lowest slot %d"
+                        .formatted(id, rowAmount, lowestSlot));
+            }
+            if (rowAmount + slotsAmount + onLoan != expected) {
+                violations.add("Book %d has %d copies on the shelf and %d on loan, expected %d in total"
+                        .formatted(id, rowAmount + slotsAmount, onLoan, expected));
+            }
+        });
+        jdbcTemplate.query("SELECT m.id, m.\"available book_amounts\","
+                + " (SELECT COUNT(*) FROM member_books mb WHERE mb.member_id = m.id) FROM members m", row -> {
+            long id = row.getLong(1);
+            int available = row.getInt(2);
+            int onLoan = row.getInt(3);
+            if (available < 0) {
+                violations.add("Member %d has a negative availableBookAmount: %d".formatted(id, available));
+            }
+            if (available + onLoan != limit) {
+                violations.add("Member %d may borrow %d more books with %d on loan, the limit is %d"
+                        .formatted(id, available, onLoan, limit));
+            }
+        });
+        return violations;
+    }
+
+    private List<Long> ids(String query, IntFunction<String> name, int count) {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query(query, row -> {
+            ids.put(row.getString(2), row.getLong(1));
+        });
+        return IntStream.range(0, count).mapToObj(number -> ids.get(name.apply(number))).toList();
+    }
+
+    private boolean isPostgreSql() {
+        String database = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        return "PostgreSQL".equals(database);
+    }
+}
@@ -0,0 +1,21 @@
+package org.test_task.load;
+
+/**
+ * A request the load clients send.
+ */
+enum Operation {
+    CREATE("POST /books"),
+    BORROW("PATCH /members/{id}/borrow"),
+    RETURN("PATCH /members/{id}/return"),
+    LIST("GET /books");
+
+    private final String route;
+
+    Operation(String route) {
+        this.route = route;
+    }
+
+    String route() {
+        return route;
+    }
+}
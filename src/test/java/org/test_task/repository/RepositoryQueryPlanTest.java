@@ -0,0 +1,187 @@
+package org.test_task.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.test_task.model.BookLookupKey;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Runs every custom repository method against H2, takes the statements the database actually
+ * received and checks with EXPLAIN that they are served by indexes. Queries which return a whole
+ * table by design may scan exactly one table, the one they list. H2 indexes foreign key columns on
+ * its own, so where an index from the changelog has no such twin the test also checks its name.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class RepositoryQueryPlanTest {
+    private static final String TABLE_SCAN = ".tableScan";
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10);
+    private static final String LOOKUP_KEY = BookLookupKey.of("A book", "An Author");
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private MemberRepository memberRepository;
+    @Autowired
+    private LoanRepository loanRepository;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void resetStatistics() {
+        jdbcTemplate.execute("SET QUERY_STATISTICS FALSE");
+        jdbcTemplate.execute("SET QUERY_STATISTICS TRUE");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryCalls")
+    void repositoryMethod_usesIndexes(String method, int allowedTableScans, String expectedIndex,
+                                      Consumer<Repositories> call) {
+        call.accept(new Repositories(bookRepository, memberRepository, loanRepository,
+                reservationRepository));
+        List<String> statements = jdbcTemplate.queryForList(
+                "SELECT sql_statement FROM information_schema.query_statistics", String.class).stream()
+                .filter(sql -> !sql.startsWith("SET ") && !sql.contains("query_statistics"))
+                .filter(sql -> !sql.toUpperCase().startsWith("INSERT"))
+                .toList();
+        assertThat(statements).as("statements of " + method).isNotEmpty();
+        StringBuilder plans = new StringBuilder();
+        for (String sql : statements) {
+            String plan = explain(sql);
+            int tableScans = plan.split(TABLE_SCAN, -1).length - 1;
+            assertThat(tableScans).as(method + " plan:%n%s", plan).isLessThanOrEqualTo(allowedTableScans);
+            plans.append(plan);
+        }
+        if (expectedIndex != null) {
+            assertThat(plans.toString()).as(method + " plans").contains(expectedIndex);
+        }
+    }
+
+    private static Stream<Arguments> repositoryCalls() {
+        return Stream.of(
+                call("BookRepository.getIdByLookupKey", 0, "ux_books_lookup_key",
+                        repos -> repos.books().getIdByLookupKey(LOOKUP_KEY)),
+                call("BookRepository.findAllByLookupKeyIn", 0, "ux_books_lookup_key",
+                        repos -> repos.books().findAllByLookupKeyIn(List.of(LOOKUP_KEY))),
+                call("BookRepository.areBookBorrowed", 0,
+                        repos -> repos.books().areBookBorrowed(1L)),
+                call("BookRepository.decrementAmount", 0,
+                        repos -> repos.books().decrementAmount(1L)),
+                call("BookRepository.incrementAmount", 0,
+                        repos -> repos.books().incrementAmount(1L)),
+                call("BookRepository.takeFromSlot", 0,
+                        repos -> repos.books().takeFromSlot(1L, 0)),
+                call("BookRepository.findSlotsWithCopies", 0,
+                        repos -> repos.books().findSlotsWithCopies(1L)),
+                call("BookRepository.spreadIntoSlots", 0,
+                        repos -> repos.books().spreadIntoSlots(1L, 4)),
+                call("BookRepository.findById", 0,
+                        repos -> repos.books().findById(1L)),
+                call("BookRepository.findBookDtoById", 0,
+                        repos -> repos.books().findBookDtoById(1L)),
+                call("BookRepository.findAllBookDtos", 1,
+                        repos -> repos.books().findAllBookDtos(PAGEABLE)),
+                call("BookRepository.streamAll", 1,
+                        repos -> consume(repos.books().streamAll())),
+                call("BookRepository.findDistinctBorrowedBookTitle", 1,
+                        repos -> repos.books().findDistinctBorrowedBookTitle(PAGEABLE)),
+                call("BookRepository.findAllByIdGreaterThanOrderByIdAsc", 0,
+                        repos -> repos.books().findAllByIdGreaterThanOrderByIdAsc(1L, PAGEABLE)),
+                call("BookRepository.findDistinctBorrowedBookTitleAfter", 1,
+                        repos -> repos.books().findDistinctBorrowedBookTitleAfter("A book", PAGEABLE)),
+                call("BookRepository.countBorrowedBooksByTitleAfter", 0, "ix_books_title",
+                        repos -> repos.books().countBorrowedBooksByTitleAfter("A book", PAGEABLE)),
+                call("BookRepository.countDistinctBorrowedBookTitles", 1,
+                        repos -> repos.books().countDistinctBorrowedBookTitles()),
+                call("BookRepository.countBorrowedBooksByTitle", 1,
+                        repos -> repos.books().countBorrowedBooksByTitle(PAGEABLE)),
+                call("BookRepository.decrementBookAmounts", 0,
+                        repos -> repos.books().decrementBookAmounts(List.of(1L, 2L))),
+                call("BookRepository.incrementBookAmounts", 0,
+                        repos -> repos.books().incrementBookAmounts(List.of(1L, 2L))),
+                call("MemberRepository.findAllBookDtosByMemberName", 0, "ix_members_name",
+                        repos -> repos.members().findAllBookDtosByMemberName("Name", PAGEABLE)),
+                call("MemberRepository.findAllByIdGreaterThanOrderByIdAsc", 0,
+                        repos -> repos.members().findAllByIdGreaterThanOrderByIdAsc(1L, PAGEABLE)),
+                call("MemberRepository.countBooksByMemberName", 0, "ix_members_name",
+                        repos -> repos.members().countBooksByMemberName("Name")),
+                call("MemberRepository.findAllMemberDtos", 1,
+                        repos -> repos.members().findAllMemberDtos(PAGEABLE)),
+                call("MemberRepository.findMemberDtoById", 0,
+                        repos -> repos.members().findMemberDtoById(1L)),
+                call("MemberRepository.streamAll", 1,
+                        repos -> consume(repos.members().streamAll())),
+                call("MemberRepository.streamAllMemberBooks", 1,
+                        repos -> consume(repos.members().streamAllMemberBooks())),
+                call("MemberRepository.findById", 0,
+                        repos -> repos.members().findById(1L)),
+                call("MemberRepository.decrementAvailableBookAmount", 0,
+                        repos -> repos.members().decrementAvailableBookAmount(1L)),
+                call("MemberRepository.incrementAvailableBookAmount", 0,
+                        repos -> repos.members().incrementAvailableBookAmount(1L)),
+                call("MemberRepository.decreaseAvailableBookAmount", 0,
+                        repos -> repos.members().decreaseAvailableBookAmount(1L, 2)),
+                call("MemberRepository.increaseAvailableBookAmount", 0,
+                        repos -> repos.members().increaseAvailableBookAmount(1L, 2)),
+                call("MemberRepository.removeBorrowedBooks", 0, "ux_member_books_member_id_book_id_id",
+                        repos -> repos.members().removeBorrowedBooks(1L, List.of(1L, 2L))),
+                call("LoanRepository.existsByMemberId", 0,
+                        repos -> repos.loans().existsByMemberId(1L)),
+                call("LoanRepository.deleteOldestLoan", 0, "ux_member_books_member_id_book_id_id",
+                        repos -> repos.loans().deleteOldestLoan(1L, 1L)),
+                call("ReservationRepository.findQueueHead", 0,
+                        repos -> repos.reservations().findQueueHead(1L)),
+                call("ReservationRepository.dequeue", 0,
+                        repos -> repos.reservations().dequeue(1L)),
+                call("ReservationRepository.cancel", 0,
+                        repos -> repos.reservations().cancel(1L, 1L)),
+                call("ReservationRepository.findAllReservationDtosByMemberId", 0,
+                        repos -> repos.reservations().findAllReservationDtosByMemberId(1L, PAGEABLE))
+        );
+    }
+
+    private static void consume(Stream<?> stream) {
+        try (stream) {
+            stream.findFirst();
+        }
+    }
+
+    private String explain(String sql) {
+        return jdbcTemplate.query("EXPLAIN " + sql, resultSet -> {
+            StringBuilder plan = new StringBuilder();
+            while (resultSet.next()) {
+                plan.append(resultSet.getString(1));
+            }
+            return plan.toString();
+        });
+    }
+
+    private static Arguments call(String method, int allowedTableScans,
+                                  Consumer<Repositories> call) {
+        return call(method, allowedTableScans, null, call);
+    }
+
+    private static Arguments call(String method, int allowedTableScans, String expectedIndex,
+                                  Consumer<Repositories> call) {
+        return Arguments.of(method, allowedTableScans, expectedIndex, call);
+    }
+
+    private record Repositories(BookRepository books, MemberRepository members, LoanRepository loans,
+                                ReservationRepository reservations) {
+    }
+}
@@ -0,0 +1,94 @@
+package org.test_task.retry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.core.convert.support.ConfigurableConversionService;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class OptimisticLockRetryAspectTest {
+    private static final String OPERATION = "ConflictingService.update";
+    private MeterRegistry meterRegistry;
+    private ConflictingService target;
+    private ConflictingService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("retry.conflict.max-attempts", "3")
+                .withProperty("retry.conflict.initial-backoff", "1ms")
+                .withProperty("retry.conflict.max-backoff", "2ms");
+        environment.setConversionService(
+                (ConfigurableConversionService) ApplicationConversionService.getSharedInstance());
+        target = new ConflictingService();
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.addAspect(new OptimisticLockRetryAspect(meterRegistry, environment));
+        service = proxyFactory.getProxy();
+    }
+
+    @AfterEach
+    void resetTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Retry on conflict, the call succeeds after two conflicts")
+    public void retryOnConflict_transientConflicts_succeeded() {
+        target.conflicts = 2;
+        assertEquals("updated", service.update());
+        assertEquals(3, target.calls);
+        assertEquals(2, count(OptimisticLockRetryAspect.CONFLICTS_METRIC));
+        assertEquals(2, count(OptimisticLockRetryAspect.RETRIES_METRIC));
+        assertEquals(0, count(OptimisticLockRetryAspect.FAILURES_METRIC));
+    }
+
+    @Test
+    @DisplayName("Retry on conflict, invalid case because every attempt conflicts")
+    public void retryOnConflict_attemptsExhausted_throwException() {
+        target.conflicts = Integer.MAX_VALUE;
+        assertThrows(OptimisticLockingFailureException.class, () -> service.update());
+        assertEquals(3, target.calls);
+        assertEquals(3, count(OptimisticLockRetryAspect.CONFLICTS_METRIC));
+        assertEquals(2, count(OptimisticLockRetryAspect.RETRIES_METRIC));
+        assertEquals(1, count(OptimisticLockRetryAspect.FAILURES_METRIC));
+    }
+
+    @Test
+    @DisplayName("Retry on conflict, a call inside an outer transaction is not retried")
+    public void retryOnConflict_outerTransaction_calledOnce() {
+        target.conflicts = 1;
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> service.update());
+        assertEquals(1, target.calls);
+        assertEquals(0, count(OptimisticLockRetryAspect.CONFLICTS_METRIC));
+    }
+
+    private double count(String metric) {
+        return meterRegistry.counter(metric, "operation", OPERATION).count();
+    }
+
+    static class ConflictingService {
+        private int conflicts;
+        private int calls;
+
+        @RetryOnConflict
+        public String update() {
+            calls++;
+            if (calls <= conflicts) {
+                throw new OptimisticLockingFailureException("Stale version");
+            }
+            return "updated";
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.test_task.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.env.Environment;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.test_task.dto.book.BookAvailabilityDto;
+import org.test_task.dto.book.BookDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
+import org.test_task.repository.BookRepository;
+import org.test_task.service.BookService;
+import java.time.Duration;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class BookAvailabilityServiceImplTest {
+    private BookAvailabilityServiceImpl bookAvailabilityService;
+    @Mock
+    private BookService bookService;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookInventory bookInventory;
+    @Mock
+    private Environment environment;
+
+    @BeforeEach
+    void setUp() {
+        bookAvailabilityService = new BookAvailabilityServiceImpl(
+                bookService, bookRepository, bookInventory, environment, Runnable::run);
+    }
+
+    @Test
+    @DisplayName("Wait for a copy, the book is available, answered at once")
+    public void waitForCopy_available_returnAvailability() {
+        mockWaitTimeout();
+        Mockito.when(bookService.findById(1L)).thenReturn(new BookDto("A book", "An Author", 2));
+        DeferredResult<ResponseEntity<BookAvailabilityDto>> actual = bookAvailabilityService.waitForCopy(1L);
+        assertEquals(ResponseEntity.ok(new BookAvailabilityDto(1L, 2)), actual.getResult());
+    }
+
+    @Test
+    @DisplayName("Wait for a copy, a returned copy wakes only the first waiting client")
+    public void waitForCopy_copyReturned_wakeOneWaiter() {
+        mockWaitTimeout();
+        Mockito.when(bookService.findById(1L)).thenReturn(new BookDto("A book", "An Author", 0));
+        DeferredResult<ResponseEntity<BookAvailabilityDto>> first = bookAvailabilityService.waitForCopy(1L);
+        DeferredResult<ResponseEntity<BookAvailabilityDto>> second = bookAvailabilityService.waitForCopy(1L);
+        assertFalse(first.hasResult());
+        Mockito.when(bookRepository.findBookDtoById(1L))
+                .thenReturn(Optional.of(new BookDto("A book", "An Author", 1)));
+        Mockito.when(bookInventory.withSlotAmount(Mockito.eq(1L), Mockito.any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+        bookAvailabilityService.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L));
+        assertEquals(ResponseEntity.ok(new BookAvailabilityDto(1L, 1)), first.getResult());
+        assertFalse(second.hasResult());
+    }
+
+    @Test
+    @DisplayName("Availability changed, nobody listens to the book, it is not loaded")
+    public void onAvailabilityChanged_noSubscribers_notLoaded() {
+        bookAvailabilityService.onAvailabilityChanged(new BookAvailabilityChangedEvent(1L));
+        Mockito.verify(bookRepository, Mockito.never()).findBookDtoById(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Stream availability, invalid case because the book is not found")
+    public void streamAvailability_invalidId_throwException() {
+        Mockito.when(bookService.findById(-1L)).thenThrow(
+                new EntityNotFoundException("There is no book with such id. ID: -1"));
+        assertThrows(EntityNotFoundException.class, () -> bookAvailabilityService.streamAvailability(-1L));
+    }
+
+    private void mockWaitTimeout() {
+        Mockito.when(environment.getRequiredProperty("book.availability.wait-timeout", Duration.class))
+                .thenReturn(Duration.ofSeconds(30));
+    }
+}
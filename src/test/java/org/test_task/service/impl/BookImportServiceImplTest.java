@@ -0,0 +1,123 @@
+package org.test_task.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.env.Environment;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookImportFormat;
+import org.test_task.dto.book.BookImportResultDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.repository.BookRepository;
+import org.test_task.search.BookSearchIndex;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@ExtendWith(MockitoExtension.class)
+class BookImportServiceImplTest {
+    @InjectMocks
+    private BookImportServiceImpl bookImportService;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private BookCache bookCache;
+    @Mock
+    private Environment environment;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("Import books from CSV, copies are aggregated and written in chunks")
+    public void importBooks_csv_validCase_returnSummary() {
+        List<Map<CreateBookRequestDto, Integer>> chunks = recordChunks();
+        Mockito.when(environment.getProperty("book.import.chunk-size")).thenReturn("2");
+        String csv = """
+                title,author
+                A book,An Author
+                "A book, continued",Bob Smith
+                A book,An Author
+                A book,An Author
+
+                Another book,Bob Smith
+                """;
+        BookImportResultDto actual = bookImportService.importBooks(toStream(csv), BookImportFormat.CSV,
+                StandardCharsets.UTF_8);
+        assertEquals(5, actual.totalRows());
+        assertEquals(5, actual.importedRows());
+        assertEquals(0, actual.rejectedRows());
+        assertEquals(4, actual.importedBooks());
+        assertEquals(List.of(
+                Map.of(new CreateBookRequestDto("A book", "An Author"), 1,
+                        new CreateBookRequestDto("A book, continued", "Bob Smith"), 1),
+                Map.of(new CreateBookRequestDto("A book", "An Author"), 2,
+                        new CreateBookRequestDto("Another book", "Bob Smith"), 1)
+        ), chunks);
+    }
+
+    @Test
+    @DisplayName("Import books from NDJSON, invalid lines are rejected")
+    public void importBooks_ndjson_invalidLines_rejected() {
+        List<Map<CreateBookRequestDto, Integer>> chunks = recordChunks();
+        Mockito.when(environment.getProperty("book.import.chunk-size")).thenReturn("1000");
+        String ndjson = """
+                {"title":"A book","author":"An Author"}
+                {"title":"a book","author":"An Author"}
+                {"title":"A book",
+                {"title":"A book","author":"An Author"}
+                """;
+        BookImportResultDto actual = bookImportService.importBooks(toStream(ndjson), BookImportFormat.NDJSON,
+                StandardCharsets.UTF_8);
+        assertEquals(4, actual.totalRows());
+        assertEquals(2, actual.importedRows());
+        assertEquals(2, actual.rejectedRows());
+        assertEquals(List.of("Line 2: title Invalid format title", "Line 3: malformed JSON"),
+                actual.rejectedLines());
+        assertEquals(List.of(Map.of(new CreateBookRequestDto("A book", "An Author"), 2)), chunks);
+    }
+
+    @Test
+    @DisplayName("Import books from CSV, the content is decoded with the given charset")
+    public void importBooks_csv_latin1_decodeWithCharset() {
+        List<Map<CreateBookRequestDto, Integer>> chunks = recordChunks();
+        Mockito.when(environment.getProperty("book.import.chunk-size")).thenReturn("1000");
+        byte[] csv = "Les Misérables,Victor Hugo\n".getBytes(StandardCharsets.ISO_8859_1);
+        BookImportResultDto actual = bookImportService.importBooks(new ByteArrayInputStream(csv),
+                BookImportFormat.CSV, StandardCharsets.ISO_8859_1);
+        assertEquals(1, actual.importedRows());
+        assertEquals(List.of(Map.of(new CreateBookRequestDto("Les Misérables", "Victor Hugo"), 1)), chunks);
+    }
+
+    private List<Map<CreateBookRequestDto, Integer>> recordChunks() {
+        List<Map<CreateBookRequestDto, Integer>> chunks = new ArrayList<>();
+        Mockito.doAnswer(invocation -> chunks.add(
+                new LinkedHashMap<>(invocation.<Map<CreateBookRequestDto, Integer>>getArgument(0))))
+                .when(bookRepository).addCopies(Mockito.anyMap());
+        return chunks;
+    }
+
+    private static InputStream toStream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
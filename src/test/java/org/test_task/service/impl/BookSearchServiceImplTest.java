@@ -0,0 +1,122 @@
+package org.test_task.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookDto;
+import org.test_task.inventory.BookInventory;
+import org.test_task.mapper.BookMapper;
+import org.test_task.model.Book;
+import org.test_task.repository.BookRepository;
+import org.test_task.search.BookSearchIndex;
+import java.util.List;
+
+@ExtendWith(MockitoExtension.class)
+class BookSearchServiceImplTest {
+    @InjectMocks
+    private BookSearchServiceImpl bookSearchService;
+    @Spy
+    private BookSearchIndex bookSearchIndex;
+    @Mock
+    private BookRepository bookRepository;
+    @Spy
+    private BookMapper bookMapper;
+    @Spy
+    private BookCache bookCache = new BookCache(new CaffeineCacheManager());
+    @Spy
+    private BookInventory bookInventory = new BookInventory(Mockito.mock(BookRepository.class),
+            new MockEnvironment().withProperty("book.inventory.slots", "1"));
+
+    @BeforeEach
+    void setUp() {
+        bookSearchIndex.put(1L, "The Hobbit", "John Tolkien");
+        bookSearchIndex.put(2L, "Hobbies of kings", "Mary Hobson");
+        bookSearchIndex.put(3L, "War and Peace", "Leo Tolstoy");
+    }
+
+    @Test
+    @DisplayName("Search books by a word prefix, exact title words rank first")
+    public void search_prefix_returnRankedBooks() {
+        bookSearchIndex.put(4L, "Hob stories", "Ann Smith");
+        List<Book> books = List.of(getBook(1L, "The Hobbit", "John Tolkien"),
+                getBook(2L, "Hobbies of kings", "Mary Hobson"),
+                getBook(4L, "Hob stories", "Ann Smith"));
+        Mockito.when(bookRepository.findAllById(List.of(4L, 2L, 1L))).thenReturn(books);
+        List<BookDto> expected = List.of(new BookDto("Hob stories", "Ann Smith", 1),
+                new BookDto("Hobbies of kings", "Mary Hobson", 1),
+                new BookDto("The Hobbit", "John Tolkien", 1));
+        Mockito.when(bookMapper.toBookDto(books.get(2))).thenReturn(expected.get(0));
+        Mockito.when(bookMapper.toBookDto(books.get(1))).thenReturn(expected.get(1));
+        Mockito.when(bookMapper.toBookDto(books.get(0))).thenReturn(expected.get(2));
+        assertEquals(expected, bookSearchService.search("Hob", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Search books, every word of the query must match")
+    public void search_severalWords_returnBooksMatchingAllWords() {
+        Book book = getBook(3L, "War and Peace", "Leo Tolstoy");
+        Mockito.when(bookRepository.findAllById(List.of(3L))).thenReturn(List.of(book));
+        BookDto expected = new BookDto("War and Peace", "Leo Tolstoy", 1);
+        Mockito.when(bookMapper.toBookDto(book)).thenReturn(expected);
+        assertEquals(List.of(expected), bookSearchService.search("peace tol", PageRequest.of(0, 10)));
+        assertEquals(List.of(), bookSearchService.search("peace tolkien", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Removed and renamed books are no longer found by their old words")
+    public void search_afterUpdateAndRemove_returnNothing() {
+        bookSearchIndex.remove(3L);
+        bookSearchIndex.put(1L, "Silmarillion", "John Tolkien");
+        assertEquals(List.of(), bookSearchService.search("war", PageRequest.of(0, 10)));
+        assertEquals(List.of(), bookSearchService.search("hobbit", PageRequest.of(0, 10)));
+    }
+
+    @Test
+    @DisplayName("Rebuild the index from all the books batch by batch")
+    public void rebuildIndex_validCase_indexAllBooks() {
+        Book book = getBook(5L, "Dune", "Frank Herbert");
+        Mockito.when(bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 1000)))
+                .thenReturn(List.of(book));
+        bookSearchService.rebuildIndex();
+        assertEquals(List.of(5L), bookSearchIndex.search("dune", 0, 10));
+        assertEquals(List.of(), bookSearchIndex.search("hobbit", 0, 10));
+    }
+
+    @Test
+    @DisplayName("Put a book inside a transaction, it is searchable only after the commit")
+    public void put_inTransaction_applyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookSearchIndex.put(6L, "Emma", "Jane Austen");
+            assertEquals(List.of(), bookSearchIndex.search("emma", 0, 10));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertEquals(List.of(6L), bookSearchIndex.search("emma", 0, 10));
+    }
+
+    private static Book getBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setAmount(1);
+        return book;
+    }
+}
@@ -1,8 +1,8 @@
 package org.test_task.service.impl;
 
 import static org.mockito.Mockito.when;
-import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import org.junit.jupiter.api.Assertions;
@@ -14,18 +14,29 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.mock.env.MockEnvironment;
+import org.test_task.cache.BookCache;
+import org.test_task.cache.TotalCountCache;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.BorrowedBookAmount;
 import org.test_task.dto.book.CreateBookRequestDto;
 import org.test_task.dto.book.ShowBookInfoResponseDto;
 import org.test_task.exception.DataProcessingException;
 import org.test_task.exception.EntityNotFoundException;
+import org.test_task.inventory.BookInventory;
 import org.test_task.mapper.BookMapper;
 import org.test_task.model.Book;
+import org.test_task.model.BookLookupKey;
 import org.test_task.repository.BookRepository;
+import org.test_task.search.BookSearchIndex;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -36,19 +47,29 @@ class BookServiceImplTest {
     private BookServiceImpl bookService;
     @Mock
     private BookRepository bookRepository;
+    @Mock
+    private BookSearchIndex bookSearchIndex;
+    @Spy
+    private BookCache bookCache = new BookCache(new CaffeineCacheManager());
+    @Spy
+    private TotalCountCache totalCountCache = new TotalCountCache(
+            new CaffeineCacheManager(TotalCountCache.TOTAL_COUNTS_CACHE));
     @Spy
     private BookMapper bookMapper;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private BookInventory bookInventory = new BookInventory(Mockito.mock(BookRepository.class),
+            new MockEnvironment().withProperty("book.inventory.slots", "1"));
 
     @Test
     @DisplayName("Save first book, valid case")
     public void saveFirstBook_validCase_returnBookDto() {
         Book book = getBook();
+        book.setAmount(1);
         CreateBookRequestDto request = getCreateBookRequestDto();
-        when(bookRepository.getBookAmountByTitleAndAuthor(request.title(), request.author()))
-                .thenReturn(Optional.of(0));
-        when(bookMapper.toBookModel(request)).thenReturn(book);
-        book.setAmount(book.getAmount() + 1);
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.addCopy(request.title(), request.author(), request.lookupKey()))
+                .thenReturn(book);
         BookDto expected = new BookDto("A book", "An author", 1);
         when(bookMapper.toBookDto(book)).thenReturn(expected);
         BookDto actual = bookService.save(request);
@@ -60,13 +81,10 @@ class BookServiceImplTest {
     @DisplayName("Save second book, valid case")
     public void saveSecondBook_validCase_returnBookDto() {
         Book book = getBook();
-        book.setAmount(1);
+        book.setAmount(2);
         CreateBookRequestDto request = getCreateBookRequestDto();
-        when(bookRepository.getBookAmountByTitleAndAuthor(request.title(), request.author()))
-                .thenReturn(Optional.of(1));
-        when(bookMapper.toBookModel(request)).thenReturn(book);
-        book.setAmount(book.getAmount() + 1);
-        when(bookRepository.save(book)).thenReturn(book);
+        when(bookRepository.addCopy(request.title(), request.author(), request.lookupKey()))
+                .thenReturn(book);
         BookDto expected = new BookDto("A book", "An author", 2);
         when(bookMapper.toBookDto(book)).thenReturn(expected);
         BookDto actual = bookService.save(request);
@@ -77,19 +95,41 @@ class BookServiceImplTest {
     @Test
     @DisplayName("Find book by id, valid case")
     public void findBookById_validCase_returnBookDto() {
-        Book book = getBook();
         BookDto expected = getBookDto();
-        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
-        Mockito.when(bookMapper.toBookDto(book)).thenReturn(expected);
+        Mockito.when(bookRepository.findBookDtoById(1L)).thenReturn(Optional.of(expected));
         BookDto actual = bookService.findById(1L);
         assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Find book by id twice, the second call is served by the cache")
+    public void findBookById_repeatedCall_loadedOnce() {
+        Mockito.when(bookRepository.findBookDtoById(1L)).thenReturn(Optional.of(getBookDto()));
+        bookService.findById(1L);
+        BookDto actual = bookService.findById(1L);
+        assertEquals(getBookDto(), actual);
+        Mockito.verify(bookRepository, Mockito.times(1)).findBookDtoById(1L);
+    }
+
+    @Test
+    @DisplayName("Update book by id, the cached book is evicted")
+    public void updateBookById_cachedBook_reloaded() {
+        Book book = getBook();
+        Mockito.when(bookRepository.findBookDtoById(1L)).thenReturn(Optional.of(getBookDto()));
+        bookService.findById(1L);
+        CreateBookRequestDto requestDto = getCreateBookRequestDto();
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(book);
+        bookService.updateById(1L, requestDto);
+        bookService.findById(1L);
+        Mockito.verify(bookRepository, Mockito.times(2)).findBookDtoById(1L);
+    }
+
     @Test
     @DisplayName("Find book by id, invalid case because of incorrect id")
     public void findBookById_invalidCase_throwException() {
         Long bookId = -1L;
-        Mockito.when(bookRepository.findById(bookId)).thenThrow(
+        Mockito.when(bookRepository.findBookDtoById(bookId)).thenThrow(
                 new EntityNotFoundException("There is no book with such id. ID: " + bookId)
         );
         Exception exception = assertThrows(
@@ -104,9 +144,20 @@ class BookServiceImplTest {
     @Test
     @DisplayName("Delete a book, valid case")
     public void deleteById_validCase_deleted() {
-        Long bookId = 1L;
-        bookService.deleteById(bookId);
-        Mockito.verify(bookRepository, Mockito.times(1)).deleteById(bookId);
+        Book book = getBook();
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        bookService.deleteById(1L);
+        Mockito.verify(bookRepository, Mockito.times(1)).delete(book);
+    }
+
+    @Test
+    @DisplayName("Delete a book, its cached lookup key is evicted")
+    public void deleteById_cachedLookupKey_evicted() {
+        Book book = getBook();
+        bookCache.getBookId(book.getLookupKey(), lookupKey -> 1L);
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        bookService.deleteById(1L);
+        assertNull(bookCache.getBookId(book.getLookupKey(), lookupKey -> null));
     }
 
     @Test
@@ -125,9 +176,8 @@ class BookServiceImplTest {
     public void updateBookById_validCase_returnBookDto() {
         CreateBookRequestDto requestDto = getCreateBookRequestDto();
         Book book = getBook();
-        Mockito.when(bookRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(bookMapper.toBookModel(requestDto)).thenReturn(book);
-        Mockito.when(bookRepository.save(book)).thenReturn(book);
+        Mockito.when(bookRepository.findById(1L)).thenReturn(Optional.of(book));
+        Mockito.when(bookRepository.saveAndFlush(book)).thenReturn(book);
         Mockito.when(bookMapper.toBookDto(book)).thenReturn(getBookDto());
         BookDto expected = getBookDto();
         BookDto actual = bookService.updateById(1L, requestDto);
@@ -138,9 +188,7 @@ class BookServiceImplTest {
     @DisplayName("Update book by id, invalid case because book is not found")
     public void updateBookById_invalidCase_throwException() {
         Long id = -1L;
-        Mockito.when(bookRepository.existsById(id)).thenThrow(
-                new EntityNotFoundException("There is no book with such id. ID: " + id)
-        );
+        Mockito.when(bookRepository.findById(id)).thenReturn(Optional.empty());
         Exception exception = assertThrows(
                 EntityNotFoundException.class,
                 () -> bookService.updateById(-1L, getCreateBookRequestDto())
@@ -154,17 +202,57 @@ class BookServiceImplTest {
     @DisplayName("Get all books, valid case")
     public void getAllBooks_validCase_returnListBookDto() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = getBookList();
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
-        Mockito.when(bookRepository.findAll(pageable)).thenReturn(bookPage);
         List<BookDto> expected = getBookDtoList();
-        for (int i = 0; i < books.size(); i++) {
-            Mockito.when(bookMapper.toBookDto(books.get(i))).thenReturn(expected.get(i));
-        }
+        Mockito.when(bookRepository.findAllBookDtos(pageable)).thenReturn(new SliceImpl<>(expected, pageable, false));
         List<BookDto> actual = bookService.getAll(pageable);
         Assertions.assertEquals(expected, actual);
     }
 
+    @Test
+    @DisplayName("Get all books after a cursor, a full page returns the cursor of the next one")
+    public void getAllBooks_cursor_returnNextCursor() {
+        List<Book> books = getBookList();
+        Mockito.when(bookRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 3)))
+                .thenReturn(books);
+        CursorPage<BookDto> firstPage = bookService.getAll(null, 3);
+        assertEquals(3, firstPage.content().size());
+        Mockito.when(bookRepository.findAllByIdGreaterThanOrderByIdAsc(3L, PageRequest.of(0, 3)))
+                .thenReturn(List.of());
+        CursorPage<BookDto> lastPage = bookService.getAll(firstPage.nextCursor(), 3);
+        assertEquals(List.of(), lastPage.content());
+        Assertions.assertNull(lastPage.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Count all books, the count is reused by the next requests")
+    public void countAllBooks_repeatedCall_countedOnce() {
+        Mockito.when(bookRepository.count()).thenReturn(3L);
+        bookService.countAll();
+        assertEquals(3L, bookService.countAll());
+        Mockito.verify(bookRepository, Mockito.times(1)).count();
+    }
+
+    @Test
+    @DisplayName("Get all books after a cursor, invalid case because the cursor is malformed")
+    public void getAllBooks_invalidCursor_throwException() {
+        assertThrows(DataProcessingException.class, () -> bookService.getAll("not a cursor", 3));
+    }
+
+    @Test
+    @DisplayName("Find distinct borrowed books' titles after a cursor, the last title is the next cursor")
+    public void findDistinctBorrowedBookTitle_cursor_returnNextCursor() {
+        List<String> titles = List.of("A book", "A book 2");
+        Mockito.when(bookRepository.findDistinctBorrowedBookTitleAfter("", PageRequest.of(0, 2)))
+                .thenReturn(titles);
+        Mockito.when(bookRepository.findDistinctBorrowedBookTitleAfter("A book 2", PageRequest.of(0, 2)))
+                .thenReturn(List.of("A book 3"));
+        CursorPage<String> firstPage = bookService.findDistinctBorrowedBookTitle(null, 2);
+        CursorPage<String> lastPage = bookService.findDistinctBorrowedBookTitle(firstPage.nextCursor(), 2);
+        assertEquals(titles, firstPage.content());
+        assertEquals(List.of("A book 3"), lastPage.content());
+        Assertions.assertNull(lastPage.nextCursor());
+    }
+
     @Test
     @DisplayName("Find distinct borrowed books' titles, valid case")
     public void findDistinctBorrowedBookTitle_validCase_returnListString() {
@@ -180,19 +268,32 @@ class BookServiceImplTest {
     @DisplayName("Get distinct book's info, such as title and amount, valid case")
     public void getDistinctBookTitlesAndAmount_validCase_returnShowBookInfoResponseDtoList() {
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = getBookList();
-        Book book = getBook();
-        book.setAmount(3);
-        books.add(book);
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
-        Mockito.when(bookRepository.findAllBorrowedBooks(pageable)).thenReturn(bookPage);
+        Mockito.when(bookRepository.countBorrowedBooksByTitle(pageable)).thenReturn(List.of(
+                getBorrowedBookAmount("A book", 2L),
+                getBorrowedBookAmount("A book 2", 1L),
+                getBorrowedBookAmount("A book 3", 1L)
+        ));
         List<ShowBookInfoResponseDto> expected = List.of(
                 new ShowBookInfoResponseDto("A book", 2),
                 new ShowBookInfoResponseDto("A book 2", 1),
                 new ShowBookInfoResponseDto("A book 3", 1)
         );
         List<ShowBookInfoResponseDto> actual = bookService.getDistinctBookTitlesAndAmount(pageable);
-        assertThat(actual).containsExactlyInAnyOrderElementsOf(expected);
+        assertEquals(expected, actual);
+    }
+
+    private static BorrowedBookAmount getBorrowedBookAmount(String title, Long amount) {
+        return new BorrowedBookAmount() {
+            @Override
+            public String getTitle() {
+                return title;
+            }
+
+            @Override
+            public Long getAmount() {
+                return amount;
+            }
+        };
     }
 
     private static BookDto getBookDto() {
@@ -209,6 +310,7 @@ class BookServiceImplTest {
         book.setTitle("A book");
         book.setAuthor("An author");
         book.setAmount(0);
+        book.setLookupKey(BookLookupKey.of(book.getTitle(), book.getAuthor()));
         return book;
     }
 
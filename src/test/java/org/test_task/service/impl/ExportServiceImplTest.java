@@ -0,0 +1,119 @@
+package org.test_task.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.test_task.dto.ExportFormat;
+import org.test_task.dto.member.MemberBookRow;
+import org.test_task.inventory.BookInventory;
+import org.test_task.model.Book;
+import org.test_task.model.Member;
+import org.test_task.repository.BookRepository;
+import org.test_task.repository.MemberRepository;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+class ExportServiceImplTest {
+    @InjectMocks
+    private ExportServiceImpl exportService;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private MemberRepository memberRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Spy
+    private BookInventory bookInventory = new BookInventory(Mockito.mock(BookRepository.class),
+            new MockEnvironment().withProperty("book.inventory.slots", "1"));
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Test
+    @DisplayName("Export books as CSV, fields with commas and quotes are quoted")
+    public void exportBooks_csv_validCase() {
+        Book book = getBook(1L, "A book", "An author");
+        Book book2 = getBook(2L, "A book, \"continued\"", "An author");
+        book2.setAmount(null);
+        Mockito.when(bookRepository.streamAll()).thenReturn(Stream.of(book, book2));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportBooks(ExportFormat.CSV, outputStream);
+        String expected = """
+                id,title,author,amount
+                1,A book,An author,3
+                2,"A book, ""continued\"\"",An author,
+                """;
+        assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Export members as NDJSON, valid case")
+    public void exportMembers_ndjson_validCase() {
+        Member member = new Member();
+        member.setId(1L);
+        member.setName("Name");
+        member.setMembershipDate(LocalDate.of(2023, 11, 1));
+        member.setAvailableBookAmount(10);
+        Mockito.when(memberRepository.streamAll()).thenReturn(Stream.of(member));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportMembers(ExportFormat.NDJSON, outputStream);
+        String expected = "{\"id\":1,\"name\":\"Name\",\"membershipDate\":\"2023-11-01\",\"availableBookAmount\":10}\n";
+        assertEquals(expected, outputStream.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @DisplayName("Export borrowed books, loaded rows are detached every thousand rows")
+    public void exportMemberBooks_manyRows_persistenceContextCleared() {
+        Mockito.when(memberRepository.streamAllMemberBooks()).thenReturn(Stream.iterate(1L, id -> id + 1)
+                .limit(2500)
+                .map(ExportServiceImplTest::getMemberBookRow));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        exportService.exportMemberBooks(ExportFormat.CSV, outputStream);
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2501, lines.length);
+        assertEquals("2500,1,2500", lines[2500]);
+        Mockito.verify(entityManager, Mockito.times(2)).clear();
+    }
+
+    private static Book getBook(Long id, String title, String author) {
+        Book book = new Book();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setAmount(3);
+        return book;
+    }
+
+    private static MemberBookRow getMemberBookRow(Long id) {
+        return new MemberBookRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getMemberId() {
+                return 1L;
+            }
+
+            @Override
+            public Long getBookId() {
+                return id;
+            }
+        };
+    }
+}
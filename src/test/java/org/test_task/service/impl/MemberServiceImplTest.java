@@ -6,31 +6,43 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.env.Environment;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.test_task.cache.BookCache;
+import org.test_task.cache.TotalCountCache;
+import org.test_task.dto.Cursor;
+import org.test_task.dto.CursorPage;
 import org.test_task.dto.book.BookDto;
 import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.member.BookBatchItemResultDto;
 import org.test_task.dto.member.CreateMemberRequestDto;
 import org.test_task.dto.member.MemberDto;
+import org.test_task.event.BookAvailabilityChangedEvent;
 import org.test_task.exception.DataProcessingException;
 import org.test_task.exception.EntityNotFoundException;
-import org.test_task.mapper.BookMapper;
+import org.test_task.inventory.BookInventory;
 import org.test_task.mapper.MemberMapper;
 import org.test_task.model.Book;
+import org.test_task.model.BookLookupKey;
+import org.test_task.model.Loan;
 import org.test_task.model.Member;
 import org.test_task.repository.BookRepository;
+import org.test_task.repository.LoanRepository;
 import org.test_task.repository.MemberRepository;
+import org.test_task.service.ReservationService;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -43,12 +55,23 @@ class MemberServiceImplTest {
     private BookRepository bookRepository;
     @Mock
     private MemberRepository memberRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private BookInventory bookInventory;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private ReservationService reservationService;
     @Spy
     private MemberMapper memberMapper;
     @Spy
     private Environment environment;
     @Spy
-    private BookMapper bookMapper;
+    private BookCache bookCache = new BookCache(new CaffeineCacheManager());
+    @Spy
+    private TotalCountCache totalCountCache = new TotalCountCache(
+            new CaffeineCacheManager(TotalCountCache.TOTAL_COUNTS_CACHE));
 
     @Test
     @DisplayName("Save a member, valid case")
@@ -67,10 +90,8 @@ class MemberServiceImplTest {
     @Test
     @DisplayName("Find member by id, valid case")
     public void findMemberById_validCase_returnMemberDto(){
-        Member member = getMember();
         MemberDto expected = getMemberDto();
-        Mockito.when(memberRepository.findById(1L)).thenReturn(Optional.of(member));
-        Mockito.when(memberMapper.toMemberDto(member)).thenReturn(expected);
+        Mockito.when(memberRepository.findMemberDtoById(1L)).thenReturn(Optional.of(expected));
         MemberDto actual = memberService.findById(1L);
         assertEquals(expected, actual);
     }
@@ -79,7 +100,7 @@ class MemberServiceImplTest {
     @DisplayName("Find member by id, invalid case because of incorrect id")
     public void findMemberById_invalidCase_throwException() {
         Long id = -1L;
-        Mockito.when(memberRepository.findById(id)).thenThrow(
+        Mockito.when(memberRepository.findMemberDtoById(id)).thenThrow(
                 new EntityNotFoundException("There is no member with such id. ID: " + id)
         );
         Exception exception = assertThrows(
@@ -95,7 +116,8 @@ class MemberServiceImplTest {
     @DisplayName("Delete a member, valid case")
     public void deleteById_validCase_deleted() {
         Long id = 1L;
-        Mockito.when(memberRepository.findById(id)).thenReturn(Optional.of(getMember()));
+        Mockito.when(memberRepository.existsById(id)).thenReturn(true);
+        Mockito.when(loanRepository.existsByMemberId(id)).thenReturn(false);
         memberService.deleteById(id);
         Mockito.verify(memberRepository, Mockito.times(1)).deleteById(id);
     }
@@ -104,7 +126,8 @@ class MemberServiceImplTest {
     @DisplayName("Delete a member, invalid case because the member must return books firstly")
     public void deleteById_invalidCase_throwException() {
         Long id = 2L;
-        Mockito.when(memberRepository.findById(id)).thenReturn(Optional.of(getMemberWithBooks()));
+        Mockito.when(memberRepository.existsById(id)).thenReturn(true);
+        Mockito.when(loanRepository.existsByMemberId(id)).thenReturn(true);
         Exception exception = Assertions.assertThrows((DataProcessingException.class),
                 () -> memberService.deleteById(id));
         String expected = "Can't delete user. The borrowed books must be returned.";
@@ -118,8 +141,7 @@ class MemberServiceImplTest {
         CreateMemberRequestDto requestDto = getCreateMemberRequestDto();
         Member member = getMember();
         MemberDto expected = getMemberDto();
-        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
-        Mockito.when(memberMapper.toMemberModel(requestDto)).thenReturn(member);
+        Mockito.when(memberRepository.findById(1L)).thenReturn(Optional.of(member));
         Mockito.when(memberRepository.save(member)).thenReturn(member);
         Mockito.when(memberMapper.toMemberDto(member)).thenReturn(expected);
         MemberDto actual = memberService.updateById(1L, requestDto);
@@ -130,9 +152,7 @@ class MemberServiceImplTest {
     @DisplayName("Update member by id, invalid case because member is not found")
     public void updateMemberById_invalidCase_throwException() {
         Long id = -1L;
-        Mockito.when(memberRepository.existsById(id)).thenThrow(
-                new EntityNotFoundException("There is no member with such id. ID: " + id)
-        );
+        Mockito.when(memberRepository.findById(id)).thenReturn(Optional.empty());
         Exception exception = assertThrows(
                 EntityNotFoundException.class,
                 () -> memberService.updateById(-1L, getCreateMemberRequestDto())
@@ -146,69 +166,261 @@ class MemberServiceImplTest {
     @DisplayName("Get all members, valid case")
     public void getAllMembers_validCase_returnListMemberDto() {
         Pageable pageable = PageRequest.of(0, 10);
+        List<MemberDto> expected = getMemberDtoList();
+        Mockito.when(memberRepository.findAllMemberDtos(pageable))
+                .thenReturn(new SliceImpl<>(expected, pageable, false));
+        List<MemberDto> actual = memberService.getAll(pageable);
+        Assertions.assertEquals(expected, actual);
+    }
+
+    @Test
+    @DisplayName("Get all members after a cursor, valid case")
+    public void getAllMembers_cursor_returnCursorPage() {
         List<Member> members = getMembersList();
-        Page<Member> memberPage = new PageImpl<>(members, pageable, members.size());
-        Mockito.when(memberRepository.findAll(pageable)).thenReturn(memberPage);
+        Mockito.when(memberRepository.findAllByIdGreaterThanOrderByIdAsc(0L, PageRequest.of(0, 2)))
+                .thenReturn(members);
         List<MemberDto> expected = getMemberDtoList();
         for (int i = 0; i < members.size(); i++) {
             Mockito.when(memberMapper.toMemberDto(members.get(i))).thenReturn(expected.get(i));
         }
-        List<MemberDto> actual = memberService.getAll(pageable);
-        Assertions.assertEquals(expected, actual);
+        CursorPage<MemberDto> actual = memberService.getAll(null, 2);
+        assertEquals(expected, actual.content());
+        assertEquals(Cursor.encode("2"), actual.nextCursor());
+    }
+
+    @Test
+    @DisplayName("Count borrowed books by member's name, counts of different names are kept apart")
+    public void countBooksByMemberName_validCase_returnCount() {
+        Mockito.when(memberRepository.countBooksByMemberName("Name")).thenReturn(1L);
+        Mockito.when(memberRepository.countBooksByMemberName("Name 2")).thenReturn(2L);
+        assertEquals(1L, memberService.countBooksByMemberName("Name"));
+        assertEquals(2L, memberService.countBooksByMemberName("Name 2"));
+        assertEquals(1L, memberService.countBooksByMemberName("Name"));
+        Mockito.verify(memberRepository, Mockito.times(1)).countBooksByMemberName("Name");
     }
 
     @Test
     @DisplayName("Member borrows a book, valid case")
     public void borrowBook_validCase_returnMemberDto() {
-        Member member = getMember();
         Book book = getBook();
-        Mockito.when(bookRepository.findByAuthorAndTitle(book.getTitle(), book.getAuthor()))
-                        .thenReturn(Optional.of(book));
-        Mockito.when(memberRepository.findById(1L)).thenReturn(Optional.of(member));
-        book.setAmount(book.getAmount() - 1);
-        Mockito.when(bookRepository.save(book)).thenReturn(book);
-        List<Book> books = new ArrayList<>();
-        books.add(book);
-        member.setBooks(books);
-        member.setAvailableBookAmount(member.getAvailableBookAmount() - 1);
-        Mockito.when(memberRepository.save(member)).thenReturn(member);
+        Mockito.when(memberRepository.decrementAvailableBookAmount(1L)).thenReturn(1);
+        Mockito.when(bookRepository.getIdByLookupKey(book.getLookupKey()))
+                .thenReturn(Optional.of(book.getId()));
+        Mockito.when(bookInventory.take(book.getId())).thenReturn(true);
         MemberDto expected = new MemberDto("Name", LocalDate.now(), 9);
-        Mockito.when(memberMapper.toMemberDto(member)).thenReturn(expected);
+        Mockito.when(memberRepository.findMemberDtoById(1L)).thenReturn(Optional.of(expected));
         MemberDto actual = memberService.borrowBook(getCreateBookRequestDto(), 1L);
         assertEquals(expected, actual);
+        Mockito.verify(loanRepository, Mockito.times(1)).save(Mockito.any(Loan.class));
+        Mockito.verify(bookCache, Mockito.times(1)).evictBook(book.getId());
+    }
+
+    @Test
+    @DisplayName("Member borrows a book, invalid case because the member can't borrow more books")
+    public void borrowBook_invalidCase_noAvailableBookAmount_throwException() {
+        Mockito.when(memberRepository.decrementAvailableBookAmount(1L)).thenReturn(0);
+        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
+        Exception exception = assertThrows(DataProcessingException.class,
+                () -> memberService.borrowBook(getCreateBookRequestDto(), 1L));
+        assertEquals("The user is not allowed to borrow one more book.", exception.getMessage());
+        Mockito.verify(bookInventory, Mockito.never()).take(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Member borrows a book, invalid case because the book is not available")
+    public void borrowBook_invalidCase_bookIsNotAvailable_throwException() {
+        Book book = getBook();
+        Mockito.when(memberRepository.decrementAvailableBookAmount(1L)).thenReturn(1);
+        Mockito.when(bookRepository.getIdByLookupKey(book.getLookupKey()))
+                .thenReturn(Optional.of(book.getId()));
+        Mockito.when(bookInventory.take(book.getId())).thenReturn(false);
+        Exception exception = assertThrows(DataProcessingException.class,
+                () -> memberService.borrowBook(getCreateBookRequestDto(), 1L));
+        assertEquals("The book is not available now.", exception.getMessage());
+        Mockito.verify(loanRepository, Mockito.never()).save(Mockito.any(Loan.class));
     }
 
     @Test
     @DisplayName("Return book, valid case")
     public void returnBook_validCase_returnMemberDto() {
-        Member member = getMember();
         Book book = getBook();
-        book.setAmount(2);
-        member.getBooks().add(book);
-        Mockito.when(memberRepository.findById(1L)).thenReturn(Optional.of(member));
-        Mockito.when(bookRepository.findByAuthorAndTitle(Mockito.eq(book.getTitle()),
-                        Mockito.eq(book.getAuthor()))).thenReturn(Optional.of(book));
-        Mockito.when(bookRepository.save(Mockito.any(Book.class))).thenReturn(book);
-        Mockito.when(memberRepository.save(Mockito.any(Member.class))).thenReturn(member);
+        Mockito.when(bookRepository.getIdByLookupKey(book.getLookupKey()))
+                .thenReturn(Optional.of(book.getId()));
+        Mockito.when(loanRepository.deleteOldestLoan(1L, book.getId())).thenReturn(1);
         MemberDto expected = getMemberDto();
-        Mockito.when(memberMapper.toMemberDto(Mockito.any(Member.class))).thenReturn(expected);
+        Mockito.when(memberRepository.findMemberDtoById(1L)).thenReturn(Optional.of(expected));
         MemberDto actual = memberService.returnBook(getCreateBookRequestDto(), 1L);
         assertEquals(expected, actual);
+        Mockito.verify(bookInventory, Mockito.times(1)).put(book.getId());
+        Mockito.verify(eventPublisher, Mockito.times(1))
+                .publishEvent(new BookAvailabilityChangedEvent(book.getId()));
+        Mockito.verify(memberRepository, Mockito.times(1)).incrementAvailableBookAmount(1L);
+        Mockito.verify(bookCache, Mockito.times(1)).evictBook(book.getId());
+    }
+
+    @Test
+    @DisplayName("Return book, the copy is lent to the member who reserved it and not shelved")
+    public void returnBook_reserved_assignCopy() {
+        Book book = getBook();
+        Mockito.when(bookRepository.getIdByLookupKey(book.getLookupKey()))
+                .thenReturn(Optional.of(book.getId()));
+        Mockito.when(loanRepository.deleteOldestLoan(1L, book.getId())).thenReturn(1);
+        Mockito.when(reservationService.assignCopy(book.getId())).thenReturn(true);
+        Mockito.when(memberRepository.findMemberDtoById(1L)).thenReturn(Optional.of(getMemberDto()));
+        memberService.returnBook(getCreateBookRequestDto(), 1L);
+        Mockito.verify(memberRepository, Mockito.times(1)).incrementAvailableBookAmount(1L);
+        Mockito.verify(bookInventory, Mockito.never()).put(Mockito.anyLong());
+        Mockito.verify(eventPublisher, Mockito.never()).publishEvent(Mockito.any());
+    }
+
+    @Test
+    @DisplayName("Return book, invalid case because the member doesn't have the book")
+    public void returnBook_invalidCase_throwException() {
+        Book book = getBook();
+        Mockito.when(bookRepository.getIdByLookupKey(book.getLookupKey()))
+                .thenReturn(Optional.of(book.getId()));
+        Mockito.when(loanRepository.deleteOldestLoan(1L, book.getId())).thenReturn(0);
+        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
+        Exception exception = assertThrows(EntityNotFoundException.class,
+                () -> memberService.returnBook(getCreateBookRequestDto(), 1L));
+        assertEquals("The user doesn't have this book", exception.getMessage());
+        Mockito.verify(bookInventory, Mockito.never()).put(Mockito.anyLong());
+    }
+
+    @Test
+    @DisplayName("Member borrows several books, some of them are unavailable or unknown")
+    public void borrowBooks_validCase_returnResultPerBook() {
+        List<Book> books = List.of(getBook(), getSecondBook());
+        List<CreateBookRequestDto> requestDtos = List.of(
+                getCreateBookRequestDto(),
+                new CreateBookRequestDto("Unknown book", "An author"),
+                new CreateBookRequestDto("A book 2", "An author 2"),
+                getCreateBookRequestDto()
+        );
+        Mockito.when(memberRepository.findMemberDtoById(1L))
+                .thenReturn(Optional.of(new MemberDto("Name", LocalDate.now(), 2)));
+        Mockito.when(bookRepository.findAllByLookupKeyIn(Mockito.anyList()))
+                .thenReturn(books);
+        Mockito.when(memberRepository.decreaseAvailableBookAmount(1L, 2)).thenReturn(1);
+        Mockito.when(bookInventory.take(List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+        List<BookBatchItemResultDto> expected = List.of(
+                new BookBatchItemResultDto("A book", "An author", true, null),
+                new BookBatchItemResultDto("Unknown book", "An author", false,
+                        "There is no book with such title and author"),
+                new BookBatchItemResultDto("A book 2", "An author 2", false, "The book is not available now."),
+                new BookBatchItemResultDto("A book", "An author", false,
+                        "The book is already requested in this batch.")
+        );
+        List<BookBatchItemResultDto> actual = memberService.borrowBooks(requestDtos, 1L);
+        assertEquals(expected, actual);
+        Mockito.verify(memberRepository, Mockito.times(1)).increaseAvailableBookAmount(1L, 1);
+        Mockito.verify(memberRepository, Mockito.times(1)).addBorrowedBooks(1L, List.of(1L));
+    }
+
+    @Test
+    @DisplayName("Member borrows several books, the allowance is reserved first and books are taken in id order")
+    public void borrowBooks_validCase_reserveAllowanceThenTakeSortedBooks() {
+        List<Book> books = List.of(getBook(), getSecondBook());
+        List<CreateBookRequestDto> requestDtos = List.of(
+                new CreateBookRequestDto("A book 2", "An author 2"),
+                getCreateBookRequestDto()
+        );
+        Mockito.when(memberRepository.findMemberDtoById(1L))
+                .thenReturn(Optional.of(new MemberDto("Name", LocalDate.now(), 2)));
+        Mockito.when(bookRepository.findAllByLookupKeyIn(Mockito.anyList()))
+                .thenReturn(books);
+        Mockito.when(memberRepository.decreaseAvailableBookAmount(1L, 2)).thenReturn(1);
+        Mockito.when(bookInventory.take(List.of(1L, 2L))).thenReturn(new int[]{1, 1});
+        List<BookBatchItemResultDto> expected = List.of(
+                new BookBatchItemResultDto("A book 2", "An author 2", true, null),
+                new BookBatchItemResultDto("A book", "An author", true, null)
+        );
+        List<BookBatchItemResultDto> actual = memberService.borrowBooks(requestDtos, 1L);
+        assertEquals(expected, actual);
+        InOrder inOrder = Mockito.inOrder(memberRepository, bookInventory);
+        inOrder.verify(memberRepository).decreaseAvailableBookAmount(1L, 2);
+        inOrder.verify(bookInventory).take(List.of(1L, 2L));
+        Mockito.verify(memberRepository, Mockito.never())
+                .increaseAvailableBookAmount(Mockito.anyLong(), Mockito.anyInt());
+    }
+
+    @Test
+    @DisplayName("Member borrows several books, invalid case because the allowance was used concurrently")
+    public void borrowBooks_allowanceUsedConcurrently_throwException() {
+        List<Book> books = List.of(getBook(), getSecondBook());
+        List<CreateBookRequestDto> requestDtos = List.of(
+                getCreateBookRequestDto(),
+                new CreateBookRequestDto("A book 2", "An author 2")
+        );
+        Mockito.when(memberRepository.findMemberDtoById(1L))
+                .thenReturn(Optional.of(new MemberDto("Name", LocalDate.now(), 2)));
+        Mockito.when(bookRepository.findAllByLookupKeyIn(Mockito.anyList()))
+                .thenReturn(books);
+        Mockito.when(memberRepository.decreaseAvailableBookAmount(1L, 2)).thenReturn(0);
+        Exception exception = assertThrows(DataProcessingException.class,
+                () -> memberService.borrowBooks(requestDtos, 1L));
+        assertEquals("The user is not allowed to borrow one more book.", exception.getMessage());
+        Mockito.verify(bookInventory, Mockito.never()).take(Mockito.anyList());
+    }
+
+    @Test
+    @DisplayName("Member returns several books, one of them wasn't borrowed")
+    public void returnBooks_validCase_returnResultPerBook() {
+        List<Book> books = List.of(getBook(), getSecondBook());
+        List<CreateBookRequestDto> requestDtos = List.of(
+                getCreateBookRequestDto(),
+                new CreateBookRequestDto("A book 2", "An author 2")
+        );
+        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(bookRepository.findAllByLookupKeyIn(Mockito.anyList()))
+                .thenReturn(books);
+        Mockito.when(memberRepository.removeBorrowedBooks(1L, List.of(1L, 2L))).thenReturn(new int[]{1, 0});
+        List<BookBatchItemResultDto> expected = List.of(
+                new BookBatchItemResultDto("A book", "An author", true, null),
+                new BookBatchItemResultDto("A book 2", "An author 2", false, "The user doesn't have this book")
+        );
+        List<BookBatchItemResultDto> actual = memberService.returnBooks(requestDtos, 1L);
+        assertEquals(expected, actual);
+        Mockito.verify(bookInventory, Mockito.times(1)).put(List.of(1L));
+        Mockito.verify(memberRepository, Mockito.times(1)).increaseAvailableBookAmount(1L, 1);
+    }
+
+    @Test
+    @DisplayName("Member returns several books, loans and books are released in id order, duplicates rejected")
+    public void returnBooks_unsortedWithDuplicate_releaseSortedBooks() {
+        List<Book> books = List.of(getBook(), getSecondBook());
+        List<CreateBookRequestDto> requestDtos = List.of(
+                new CreateBookRequestDto("A book 2", "An author 2"),
+                getCreateBookRequestDto(),
+                new CreateBookRequestDto("A book 2", "An author 2")
+        );
+        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(bookRepository.findAllByLookupKeyIn(Mockito.anyList()))
+                .thenReturn(books);
+        Mockito.when(memberRepository.removeBorrowedBooks(1L, List.of(1L, 2L))).thenReturn(new int[]{1, 1});
+        List<BookBatchItemResultDto> expected = List.of(
+                new BookBatchItemResultDto("A book 2", "An author 2", true, null),
+                new BookBatchItemResultDto("A book", "An author", true, null),
+                new BookBatchItemResultDto("A book 2", "An author 2", false,
+                        "The book is already requested in this batch.")
+        );
+        List<BookBatchItemResultDto> actual = memberService.returnBooks(requestDtos, 1L);
+        assertEquals(expected, actual);
+        InOrder inOrder = Mockito.inOrder(memberRepository, bookInventory);
+        inOrder.verify(memberRepository).removeBorrowedBooks(1L, List.of(1L, 2L));
+        inOrder.verify(memberRepository).increaseAvailableBookAmount(1L, 2);
+        inOrder.verify(bookInventory).put(List.of(1L, 2L));
     }
 
     @Test
     @DisplayName("Get all books by member name, valid case")
     public void getAllBooksByMemberName_validCase_returnListBookDto() {
-        Member member = getMemberWithBooks();
         Pageable pageable = PageRequest.of(0, 10);
-        List<Book> books = member.getBooks();
-        Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
-        Mockito.when(memberRepository.findAllBooksByMemberName(member.getName(), pageable))
-                .thenReturn(bookPage);
-        BookDto book = new BookDto("A book", "An author", 3);
-        Mockito.when(bookMapper.toBookDto(books.get(0))).thenReturn(book);
-        List<BookDto> expected = List.of(book);
-        List<BookDto> actual = memberService.getAllBooksByMemberName(pageable, member.getName());
+        List<BookDto> expected = List.of(new BookDto("A book", "An author", 3));
+        Mockito.when(memberRepository.findAllBookDtosByMemberName("Name 2", pageable))
+                .thenReturn(new SliceImpl<>(expected, pageable, false));
+        Mockito.when(bookInventory.withSlotAmounts(expected)).thenReturn(expected);
+        List<BookDto> actual = memberService.getAllBooksByMemberName(pageable, "Name 2");
         assertEquals(expected, actual);
     }
 
@@ -238,7 +450,6 @@ class MemberServiceImplTest {
         member.setName("Name");
         member.setMembershipDate(LocalDate.now());
         member.setAvailableBookAmount(10);
-        member.setBooks(new ArrayList<>());
         return member;
     }
 
@@ -248,9 +459,11 @@ class MemberServiceImplTest {
         member.setName("Name 2");
         member.setMembershipDate(LocalDate.now());
         member.setAvailableBookAmount(9);
-        List<Book> books = new ArrayList<>();
-        books.add(getBook());
-        member.setBooks(books);
+        Loan loan = new Loan();
+        loan.setMember(member);
+        loan.setBook(getBook());
+        loan.setBorrowedAt(LocalDateTime.now());
+        member.getLoans().add(loan);
         return member;
     }
 
@@ -260,6 +473,17 @@ class MemberServiceImplTest {
         book.setTitle("A book");
         book.setAuthor("An author");
         book.setAmount(3);
+        book.setLookupKey(BookLookupKey.of(book.getTitle(), book.getAuthor()));
+        return book;
+    }
+
+    private static Book getSecondBook() {
+        Book book = new Book();
+        book.setId(2L);
+        book.setTitle("A book 2");
+        book.setAuthor("An author 2");
+        book.setAmount(0);
+        book.setLookupKey(BookLookupKey.of(book.getTitle(), book.getAuthor()));
         return book;
     }
 
@@ -0,0 +1,153 @@
+package org.test_task.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.test_task.cache.BookCache;
+import org.test_task.dto.book.BookDto;
+import org.test_task.dto.book.CreateBookRequestDto;
+import org.test_task.dto.reservation.QueuedReservation;
+import org.test_task.dto.reservation.ReservationDto;
+import org.test_task.event.ReservationAssignedEvent;
+import org.test_task.exception.DataProcessingException;
+import org.test_task.exception.EntityNotFoundException;
+import org.test_task.model.Loan;
+import org.test_task.model.Reservation;
+import org.test_task.repository.BookRepository;
+import org.test_task.repository.LoanRepository;
+import org.test_task.repository.MemberRepository;
+import org.test_task.repository.ReservationRepository;
+import org.test_task.service.BookService;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceImplTest {
+    private final static CreateBookRequestDto BOOK_REQUEST = new CreateBookRequestDto("A book", "An author");
+    @InjectMocks
+    private ReservationServiceImpl reservationService;
+    @Mock
+    private ReservationRepository reservationRepository;
+    @Mock
+    private MemberRepository memberRepository;
+    @Mock
+    private BookRepository bookRepository;
+    @Mock
+    private LoanRepository loanRepository;
+    @Mock
+    private BookService bookService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Spy
+    private BookCache bookCache = new BookCache(new CaffeineCacheManager());
+
+    @Test
+    @DisplayName("Reserve a book which is not available, valid case")
+    public void reserve_validCase_returnReservationDto() {
+        mockBook(0);
+        Mockito.when(reservationRepository.save(Mockito.any(Reservation.class))).thenAnswer(invocation -> {
+            Reservation reservation = invocation.getArgument(0);
+            reservation.setId(5L);
+            return reservation;
+        });
+        ReservationDto actual = reservationService.reserve(BOOK_REQUEST, 1L);
+        assertEquals(5L, actual.id());
+        assertEquals("A book", actual.title());
+        assertEquals("An author", actual.author());
+    }
+
+    @Test
+    @DisplayName("Reserve a book, invalid case because copies are on the shelf")
+    public void reserve_bookAvailable_throwException() {
+        mockBook(2);
+        Exception exception = assertThrows(DataProcessingException.class,
+                () -> reservationService.reserve(BOOK_REQUEST, 1L));
+        assertEquals("The book is available now, it can be borrowed.", exception.getMessage());
+        Mockito.verify(reservationRepository, Mockito.never()).save(Mockito.any(Reservation.class));
+    }
+
+    @Test
+    @DisplayName("Reserve a book, invalid case because the member has already reserved it")
+    public void reserve_alreadyReserved_throwException() {
+        mockBook(0);
+        Mockito.when(reservationRepository.save(Mockito.any(Reservation.class)))
+                .thenThrow(new DataIntegrityViolationException("ux_reservations_member_id_book_id"));
+        Exception exception = assertThrows(DataProcessingException.class,
+                () -> reservationService.reserve(BOOK_REQUEST, 1L));
+        assertEquals("The user has already reserved this book.", exception.getMessage());
+    }
+
+    @Test
+    @DisplayName("Cancel a reservation of another member, not found")
+    public void cancel_notOwnReservation_throwException() {
+        Mockito.when(reservationRepository.cancel(5L, 1L)).thenReturn(0);
+        assertThrows(EntityNotFoundException.class, () -> reservationService.cancel(1L, 5L));
+    }
+
+    @Test
+    @DisplayName("Assign a returned copy, the head of the queue gets the loan")
+    public void assignCopy_queued_lendToHead() {
+        Mockito.when(reservationRepository.findQueueHead(3L)).thenReturn(Optional.of(queued(5L, 1L)));
+        Mockito.when(reservationRepository.dequeue(5L)).thenReturn(1);
+        Mockito.when(memberRepository.decrementAvailableBookAmount(1L)).thenReturn(1);
+        assertTrue(reservationService.assignCopy(3L));
+        Mockito.verify(loanRepository, Mockito.times(1)).save(Mockito.any(Loan.class));
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(new ReservationAssignedEvent(5L, 1L, 3L));
+    }
+
+    @Test
+    @DisplayName("Assign a returned copy, heads claimed concurrently or at the borrow limit are skipped")
+    public void assignCopy_headUnavailable_lendToNext() {
+        Mockito.when(reservationRepository.findQueueHead(3L))
+                .thenReturn(Optional.of(queued(5L, 1L)))
+                .thenReturn(Optional.of(queued(6L, 2L)))
+                .thenReturn(Optional.of(queued(7L, 4L)));
+        Mockito.when(reservationRepository.dequeue(5L)).thenReturn(0);
+        Mockito.when(reservationRepository.dequeue(6L)).thenReturn(1);
+        Mockito.when(memberRepository.decrementAvailableBookAmount(2L)).thenReturn(0);
+        Mockito.when(reservationRepository.dequeue(7L)).thenReturn(1);
+        Mockito.when(memberRepository.decrementAvailableBookAmount(4L)).thenReturn(1);
+        assertTrue(reservationService.assignCopy(3L));
+        Mockito.verify(eventPublisher, Mockito.times(1)).publishEvent(new ReservationAssignedEvent(7L, 4L, 3L));
+    }
+
+    @Test
+    @DisplayName("Assign a returned copy, nobody waits for the book")
+    public void assignCopy_emptyQueue_returnFalse() {
+        Mockito.when(reservationRepository.findQueueHead(3L)).thenReturn(Optional.empty());
+        assertFalse(reservationService.assignCopy(3L));
+        Mockito.verify(loanRepository, Mockito.never()).save(Mockito.any(Loan.class));
+    }
+
+    private void mockBook(int amount) {
+        Mockito.when(memberRepository.existsById(1L)).thenReturn(true);
+        Mockito.when(bookRepository.getIdByLookupKey(BOOK_REQUEST.lookupKey())).thenReturn(Optional.of(3L));
+        Mockito.when(bookService.findById(3L)).thenReturn(new BookDto("A book", "An author", amount));
+    }
+
+    private static QueuedReservation queued(Long id, Long memberId) {
+        return new QueuedReservation() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getMemberId() {
+                return memberId;
+            }
+        };
+    }
+}
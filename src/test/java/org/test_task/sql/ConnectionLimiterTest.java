@@ -0,0 +1,66 @@
+package org.test_task.sql;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import javax.sql.DataSource;
+
+class ConnectionLimiterTest {
+    private DataSource target;
+    private MeterRegistry meterRegistry;
+    private DataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        target = Mockito.mock(DataSource.class);
+        Mockito.when(target.getConnection()).thenAnswer(invocation -> Mockito.mock(Connection.class));
+        ConnectionLimiter connectionLimiter = new ConnectionLimiter(2, Duration.ofMillis(10));
+        meterRegistry = new SimpleMeterRegistry();
+        connectionLimiter.bindTo(meterRegistry);
+        dataSource = connectionLimiter.limit(target);
+    }
+
+    @Test
+    @DisplayName("Get connection, no permit is free in time")
+    public void getConnection_permitsTaken_timeout() throws SQLException {
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(0, availablePermits());
+        first.close();
+        dataSource.getConnection();
+        Mockito.verify(target, Mockito.times(3)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Close connection twice, the permit is given back once")
+    public void close_twice_releasedOnce() throws SQLException {
+        Connection connection = dataSource.getConnection();
+        dataSource.getConnection();
+        connection.close();
+        connection.close();
+        assertEquals(1, availablePermits());
+    }
+
+    @Test
+    @DisplayName("Get connection, failure of the data source gives the permit back")
+    public void getConnection_failure_released() throws SQLException {
+        Mockito.when(target.getConnection()).thenThrow(new SQLException("Pool is closed"));
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(2, availablePermits());
+    }
+
+    private double availablePermits() {
+        return meterRegistry.get(ConnectionLimiter.PERMITS_METRIC).tag("state", "available").gauge().value();
+    }
+}